@@ -0,0 +1,142 @@
+package com.assignment.products.catalog;
+
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.event.CatalogBulkChangedEvent;
+import com.assignment.products.event.ProductChangedEvent;
+import com.assignment.products.model.ProductCursor;
+import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.repository.ProductsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Optional in-process copy of the live catalog that serves non-admin product reads without a
+ * database round trip. Committed writes are applied as deltas and published as a new immutable
+ * {@link CatalogSnapshot}; a periodic reload picks up changes made by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogReadModel {
+
+    private final ProductsRepository productsRepository;
+
+    @Value("${spring.application.catalog.in-memory.enabled:false}")
+    boolean enabled;
+
+    private volatile CatalogSnapshot snapshot;
+
+    private final Object writeLock = new Object();
+
+    /**
+     * Serializes reloads: bulk changes reload on the request thread and can overlap the scheduled refresh.
+     */
+    private final Object reloadLock = new Object();
+
+    /**
+     * Deltas committed while a reload is reading the database, replayed on top of the reloaded snapshot.
+     * Guarded by {@link #writeLock}.
+     */
+    private List<ProductChangedEvent> pendingDuringReload;
+
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    public long version() {
+        CatalogSnapshot current = snapshot;
+        return current == null ? 0 : current.version();
+    }
+
+    public Optional<ProductsResponseDTO> findById(long productId) {
+        return Optional.ofNullable(snapshot.findById(productId));
+    }
+
+    public List<ProductsResponseDTO> findPage(String name, BigDecimal minPrice, BigDecimal maxPrice, boolean onlyAvailable,
+                                              ProductSort sort, ProductCursor cursor, int limit) {
+        return snapshot.query(name, minPrice, maxPrice, onlyAvailable, sort, cursor, limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(event);
+            }
+            if (snapshot != null) {
+                snapshot = snapshot.apply(event.getProductId(), event.getAfter(), event.getChangeVersion());
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogBulkChanged(CatalogBulkChangedEvent event) {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.application.catalog.in-memory.refresh-interval:5m}",
+            initialDelayString = "${spring.application.catalog.in-memory.refresh-interval:5m}")
+    public void refresh() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    void reload() {
+        synchronized (reloadLock) {
+            reloadOnce();
+        }
+    }
+
+    private void reloadOnce() {
+        synchronized (writeLock) {
+            pendingDuringReload = new ArrayList<>();
+        }
+        List<ProductsResponseDTO> products;
+        try {
+            // Deleted rows are read as well, so writes that arrive after a delete are dropped
+            products = productsRepository.findResponses(Specification.unrestricted(), Sort.unsorted());
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingDuringReload = null;
+            }
+            log.error("Catalog snapshot reload failed, keeping version {}", version(), e);
+            return;
+        }
+        synchronized (writeLock) {
+            CatalogSnapshot loaded = CatalogSnapshot.of(version() + 1, products);
+            for (ProductChangedEvent event : pendingDuringReload) {
+                loaded = loaded.apply(event.getProductId(), event.getAfter(), event.getChangeVersion());
+            }
+            pendingDuringReload = null;
+            snapshot = loaded;
+        }
+        log.info("Catalog snapshot loaded: {} products, version {}", products.size(), version());
+    }
+}
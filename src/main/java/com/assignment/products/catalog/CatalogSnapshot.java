@@ -0,0 +1,253 @@
+package com.assignment.products.catalog;
+
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.model.ProductCursor;
+import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.repository.ProductSpecification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of the live (non-deleted) catalog, indexed by id, by (price, id) and by availability.
+ * Each index is a sorted array, so lookups and keyset seeks are binary searches. A write produces a
+ * new snapshot by copying the arrays with one entry replaced, which keeps readers lock-free.
+ * <p>
+ * Every row keeps its {@code change_version}, so a write that arrives after a newer one for the same product
+ * is dropped. Deleted products are never restored, so their ids are kept and later writes for them dropped.
+ */
+final class CatalogSnapshot {
+
+    private static final Comparator<Entry> BY_ID = Comparator.comparingLong(e -> e.product().getId());
+
+    private static final Comparator<Entry> BY_PRICE = Comparator.<Entry, BigDecimal>comparing(e -> e.product().getPrice())
+            .thenComparingLong(e -> e.product().getId());
+
+    private static final Comparator<RankedEntry> BY_RELEVANCE = Comparator.comparingInt(RankedEntry::rank)
+            .thenComparingLong(r -> r.entry().product().getId());
+
+    private final long version;
+
+    private final Entry[] byId;
+
+    private final Entry[] byPrice;
+
+    private final Entry[] availableById;
+
+    private final Set<Long> deletedIds;
+
+    private CatalogSnapshot(long version, Entry[] byId, Entry[] byPrice, Entry[] availableById, Set<Long> deletedIds) {
+        this.version = version;
+        this.byId = byId;
+        this.byPrice = byPrice;
+        this.availableById = availableById;
+        this.deletedIds = deletedIds;
+    }
+
+    static CatalogSnapshot of(long version, Collection<ProductsResponseDTO> products) {
+        Entry[] byId = products.stream().filter(p -> !p.isDeleted()).map(Entry::of).sorted(BY_ID).toArray(Entry[]::new);
+        Entry[] byPrice = byId.clone();
+        Arrays.sort(byPrice, BY_PRICE);
+        Entry[] availableById = Arrays.stream(byId).filter(Entry::isAvailable).toArray(Entry[]::new);
+        Set<Long> deletedIds = products.stream().filter(ProductsResponseDTO::isDeleted)
+                .map(ProductsResponseDTO::getId).collect(Collectors.toUnmodifiableSet());
+        return new CatalogSnapshot(version, byId, byPrice, availableById, deletedIds);
+    }
+
+    long version() {
+        return version;
+    }
+
+    int size() {
+        return byId.length;
+    }
+
+    /**
+     * Returns a new snapshot with the product replaced by {@code after}, or removed when {@code after}
+     * is null or deleted. Returns this snapshot when the product was deleted or already holds a newer
+     * version of it.
+     */
+    CatalogSnapshot apply(long productId, ProductsResponseDTO after, long changeVersion) {
+        Entry removed = find(productId);
+        if (deletedIds.contains(productId) || (removed != null && changeVersion < removed.product().getChangeVersion())) {
+            return this;
+        }
+        Entry added = after == null || after.isDeleted() ? null : Entry.of(after);
+        Set<Long> deleted = deletedIds;
+        if (added == null) {
+            Set<Long> grown = new HashSet<>(deletedIds);
+            grown.add(productId);
+            deleted = Collections.unmodifiableSet(grown);
+        }
+        return new CatalogSnapshot(version + 1,
+                replace(byId, BY_ID, removed, added),
+                replace(byPrice, BY_PRICE, removed, added),
+                replace(availableById, BY_ID, removed != null && removed.isAvailable() ? removed : null,
+                        added != null && added.isAvailable() ? added : null),
+                deleted);
+    }
+
+    ProductsResponseDTO findById(long productId) {
+        Entry entry = find(productId);
+        return entry == null ? null : entry.product();
+    }
+
+    /**
+     * Returns up to {@code limit} products matching the criteria that sort after the cursor,
+     * with the same semantics as the database query built by {@link ProductSpecification}.
+     */
+    List<ProductsResponseDTO> query(String name, BigDecimal minPrice, BigDecimal maxPrice, boolean onlyAvailable,
+                                    ProductSort sort, ProductCursor cursor, int limit) {
+        String term = ProductSpecification.normalize(name);
+        String[] tokens = term.isEmpty() ? new String[0] : term.split(" ");
+        List<ProductsResponseDTO> result = new ArrayList<>(Math.min(limit, byId.length));
+
+        if (sort == ProductSort.RELEVANCE) {
+            List<RankedEntry> matches = new ArrayList<>();
+            for (Entry entry : onlyAvailable ? availableById : byId) {
+                if (matches(entry, tokens, minPrice, maxPrice, onlyAvailable)) {
+                    matches.add(new RankedEntry(entry, ProductSpecification.relevanceRank(term, entry.product().getName())));
+                }
+            }
+            matches.sort(BY_RELEVANCE);
+            for (RankedEntry match : matches) {
+                if (result.size() == limit) {
+                    break;
+                }
+                if (cursor == null || isAfter(match, cursor)) {
+                    result.add(match.entry().product());
+                }
+            }
+            return result;
+        }
+
+        Entry[] index;
+        int start;
+        if (sort == ProductSort.PRICE) {
+            index = byPrice;
+            start = cursor != null ? upperBound(index, probe(cursor.getId(), cursor.getPrice()), BY_PRICE) : 0;
+            if (minPrice != null) {
+                start = Math.max(start, lowerBound(index, probe(Long.MIN_VALUE, minPrice), BY_PRICE));
+            }
+        } else {
+            index = onlyAvailable ? availableById : byId;
+            start = cursor != null ? upperBound(index, probe(cursor.getId(), null), BY_ID) : 0;
+        }
+        for (int i = start; i < index.length && result.size() < limit; i++) {
+            Entry entry = index[i];
+            if (sort == ProductSort.PRICE && maxPrice != null && entry.product().getPrice().compareTo(maxPrice) > 0) {
+                break;
+            }
+            if (matches(entry, tokens, minPrice, maxPrice, onlyAvailable)) {
+                result.add(entry.product());
+            }
+        }
+        return result;
+    }
+
+    private Entry find(long productId) {
+        int index = Arrays.binarySearch(byId, probe(productId, null), BY_ID);
+        return index >= 0 ? byId[index] : null;
+    }
+
+    private static boolean matches(Entry entry, String[] tokens, BigDecimal minPrice, BigDecimal maxPrice, boolean onlyAvailable) {
+        ProductsResponseDTO product = entry.product();
+        if (onlyAvailable && !entry.isAvailable()) {
+            return false;
+        }
+        if (minPrice != null && product.getPrice().compareTo(minPrice) < 0) {
+            return false;
+        }
+        if (maxPrice != null && product.getPrice().compareTo(maxPrice) > 0) {
+            return false;
+        }
+        for (String token : tokens) {
+            if (!entry.searchName().contains(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAfter(RankedEntry match, ProductCursor cursor) {
+        int rank = cursor.getRank() == null ? 0 : cursor.getRank();
+        return match.rank() > rank || (match.rank() == rank && match.entry().product().getId() > cursor.getId());
+    }
+
+    private static Entry[] replace(Entry[] array, Comparator<Entry> order, Entry removed, Entry added) {
+        Entry[] result = array;
+        if (removed != null) {
+            int index = Arrays.binarySearch(result, removed, order);
+            if (index >= 0) {
+                Entry[] shrunk = new Entry[result.length - 1];
+                System.arraycopy(result, 0, shrunk, 0, index);
+                System.arraycopy(result, index + 1, shrunk, index, result.length - index - 1);
+                result = shrunk;
+            }
+        }
+        if (added != null) {
+            int index = -(Arrays.binarySearch(result, added, order) + 1);
+            Entry[] grown = new Entry[result.length + 1];
+            System.arraycopy(result, 0, grown, 0, index);
+            grown[index] = added;
+            System.arraycopy(result, index, grown, index + 1, result.length - index);
+            result = grown;
+        }
+        return result;
+    }
+
+    private static int lowerBound(Entry[] array, Entry key, Comparator<Entry> order) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(array[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(Entry[] array, Entry key, Comparator<Entry> order) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(array[mid], key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Entry probe(long id, BigDecimal price) {
+        return new Entry(ProductsResponseDTO.builder().id(id).price(price).build(), "");
+    }
+
+    private record Entry(ProductsResponseDTO product, String searchName) {
+
+        static Entry of(ProductsResponseDTO product) {
+            return new Entry(product, product.getName() == null ? "" : product.getName().toLowerCase(Locale.ROOT));
+        }
+
+        boolean isAvailable() {
+            return product.getQuantity() > 0;
+        }
+    }
+
+    private record RankedEntry(Entry entry, int rank) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.assignment.products.catalog;
+
+import com.assignment.products.event.CatalogBulkChangedEvent;
+import com.assignment.products.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Current version of the product catalog, used as the validator for conditional GETs.
+ * <p>
+ * Every product write stamps the row with the next value of {@code product_change_seq}, so the highest
+ * {@code change_version} changes whenever the catalog does and is read from the index without scanning
+ * products. Archiving stamps the moved rows again, so the archive table takes part as well. The value is
+ * cached for a short interval; writes committed by this instance reset it at once, writes from other
+ * instances are seen once the interval has passed.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+
+    private static final String MAX_VERSION_SQL = "SELECT GREATEST("
+            + "(SELECT COALESCE(MAX(change_version), 0) FROM products), "
+            + "(SELECT COALESCE(MAX(change_version), 0) FROM products_archive))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.application.catalog.version-ttl:1s}")
+    Duration ttl;
+
+    private volatile long version;
+
+    private volatile long loadedAt;
+
+    private volatile boolean stale = true;
+
+    public long current() {
+        long now = System.nanoTime();
+        if (stale || now - loadedAt >= ttl.toNanos()) {
+            // Cleared before reading, so a commit that lands during the query marks the result stale again
+            stale = false;
+            Long max = jdbcTemplate.queryForObject(MAX_VERSION_SQL, Long.class);
+            version = max == null ? 0 : max;
+            loadedAt = now;
+        }
+        return version;
+    }
+
+    /**
+     * Weak entity tag for a product listing; the server does not compress responses with a strong tag.
+     * Admins and other users see different products, so the role is part of the tag. The Accept header
+     * selects the encoding (JSON, CBOR or Smile), so a hash of it is part of the tag as well: requests with
+     * the same Accept header get the same representation.
+     */
+    public String eTag(boolean isAdmin, String accept) {
+        String representation = accept == null || accept.isBlank() ? "" : "-" + Integer.toHexString(accept.hashCode());
+        return "W/\"" + current() + (isAdmin ? "-a" : "-u") + representation + "\"";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        stale = true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogBulkChanged(CatalogBulkChangedEvent event) {
+        stale = true;
+    }
+}
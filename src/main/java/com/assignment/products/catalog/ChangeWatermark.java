@@ -0,0 +1,79 @@
+package com.assignment.products.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Highest {@code change_version} below which no further change can commit, used to cap the change feed.
+ * <p>
+ * A change is numbered when its row is written, not when its transaction commits, so a slow transaction can
+ * commit a number lower than one already handed out. The sequence is sampled at a fixed rate; once a sample
+ * is older than the settle time, every number below it belongs to a transaction that has committed or rolled
+ * back, since writing transactions time out well before that (see {@code TransactionConfig}). Taking a sample
+ * uses up one sequence value, which leaves a gap in the numbering and nothing else. Samples are dropped once
+ * they have settled, so at most a settle time's worth is kept whether or not the feed is read.
+ */
+@Component
+public class ChangeWatermark {
+
+    private static final String NEXT_VERSION_SQL = "SELECT nextval('product_change_seq')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.application.changes.settle-time:10s}")
+    Duration settleTime;
+
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    private long settled;
+
+    public ChangeWatermark(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.application.changes.sample-interval:1s}")
+    public void sample() {
+        record(System.nanoTime(), nextVersion());
+    }
+
+    public long current() {
+        if (settleTime.isZero()) {
+            return nextVersion() - 1;
+        }
+        return watermark(System.nanoTime());
+    }
+
+    synchronized void record(long sampledAt, long nextVersion) {
+        samples.addLast(new Sample(sampledAt, nextVersion - 1));
+        settle(sampledAt);
+    }
+
+    synchronized long watermark(long now) {
+        settle(now);
+        return settled;
+    }
+
+    synchronized int sampleCount() {
+        return samples.size();
+    }
+
+    private void settle(long now) {
+        while (!samples.isEmpty() && now - samples.peekFirst().sampledAt() >= settleTime.toNanos()) {
+            settled = samples.pollFirst().version();
+        }
+    }
+
+    private long nextVersion() {
+        Long next = jdbcTemplate.queryForObject(NEXT_VERSION_SQL, Long.class);
+        return next == null ? 0 : next;
+    }
+
+    private record Sample(long sampledAt, long version) {
+    }
+}
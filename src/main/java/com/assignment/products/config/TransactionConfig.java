@@ -0,0 +1,68 @@
+package com.assignment.products.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Bounds how long a writing transaction may stay open. Product writes take their {@code change_version}
+ * before they commit, and the change feed only serves versions older than the settle time (see
+ * {@code ChangeWatermark}), so a transaction open longer than that would commit a change the feed has
+ * already passed. Writing transactions therefore get {@code spring.transaction.default-timeout}, which must
+ * be below the settle time, and one that has run out is rolled back at commit rather than only when its next
+ * statement runs. Read-only transactions, such as a streamed export, are not bounded.
+ */
+@Configuration
+public class TransactionConfig {
+
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers,
+                                                    @Value("${spring.application.changes.settle-time:10s}") Duration settleTime) {
+        JpaTransactionManager transactionManager = new DeadlineTransactionManager(entityManagerFactory);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        int timeout = transactionManager.getDefaultTimeout();
+        if (!settleTime.isZero() && (timeout <= 0 || Duration.ofSeconds(timeout).compareTo(settleTime) >= 0)) {
+            throw new IllegalStateException("spring.transaction.default-timeout must be set below "
+                    + "spring.application.changes.settle-time (" + settleTime + ")");
+        }
+        return transactionManager;
+    }
+
+    static class DeadlineTransactionManager extends JpaTransactionManager {
+
+        DeadlineTransactionManager(EntityManagerFactory entityManagerFactory) {
+            super(entityManagerFactory);
+            // A TransactionException at commit, such as a passed deadline, otherwise leaves the transaction open
+            setRollbackOnCommitFailure(true);
+        }
+
+        @Override
+        protected int determineTimeout(TransactionDefinition definition) {
+            if (definition.isReadOnly() && definition.getTimeout() == TransactionDefinition.TIMEOUT_DEFAULT) {
+                return TransactionDefinition.TIMEOUT_DEFAULT;
+            }
+            return super.determineTimeout(definition);
+        }
+
+        @Override
+        protected void prepareForCommit(DefaultTransactionStatus status) {
+            if (status.isNewTransaction()
+                    && TransactionSynchronizationManager.getResource(obtainEntityManagerFactory()) instanceof EntityManagerHolder holder
+                    && holder.hasTimeout()) {
+                // Throws TransactionTimedOutException once the deadline has passed, and the commit turns into a rollback
+                holder.getTimeToLiveInMillis();
+            }
+        }
+    }
+}
@@ -2,13 +2,18 @@ package com.assignment.products.controller;
 
 import com.assignment.products.model.LoginRequestDTO;
 import com.assignment.products.model.LoginResponseDTO;
+import com.assignment.products.model.RefreshTokenRequestDTO;
 import com.assignment.products.security.JwtService;
+import com.assignment.products.security.RefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,16 +25,31 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthenticationController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final MeterRegistry meterRegistry;
 
     @PostMapping("/login")
     public ResponseEntity<LoginResponseDTO> login(@RequestBody LoginRequestDTO request) {
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUserName(), request.getPassword())
-        );
-        final UserDetails user = userDetailsService.loadUserByUsername(request.getUserName());
-        return ResponseEntity.ok(jwtService.validateAndGenerateToken(user));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            // The authenticated principal is the user loaded for the password check, so no second lookup is needed
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUserName(), request.getPassword())
+            );
+            final UserDetails user = (UserDetails) authentication.getPrincipal();
+            LoginResponseDTO response = jwtService.validateAndGenerateToken(user);
+            outcome = "success";
+            return ResponseEntity.ok(response);
+        } finally {
+            sample.stop(meterRegistry.timer("auth.login", "outcome", outcome));
+        }
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(@RequestBody @Valid RefreshTokenRequestDTO request) {
+        return ResponseEntity.ok(refreshTokenService.refresh(request.getRefreshToken()));
     }
 }
@@ -1,27 +1,39 @@
 package com.assignment.products.controller;
 
 import com.assignment.products.entity.User;
+import com.assignment.products.model.OrderIntakeDTO;
 import com.assignment.products.model.OrderRequestDTO;
 import com.assignment.products.model.OrderResponseDTO;
-import com.assignment.products.service.OrderService;
+import com.assignment.products.service.OrderIdempotencyService;
+import com.assignment.products.service.OrderIntakeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
-    private final OrderService orderService;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final OrderIdempotencyService orderIdempotencyService;
+
+    private final OrderIntakeService orderIntakeService;
 
     @Operation(
             summary = "Search/Filter all products",
@@ -29,10 +41,48 @@ public class OrderController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Returned product successfully based on Criteria"),
-            @ApiResponse(responseCode = "401", description = "UnAuthorized - Authorization required")
+            @ApiResponse(responseCode = "401", description = "UnAuthorized - Authorization required"),
+            @ApiResponse(responseCode = "404", description = "Not Found - One or more products do not exist"),
+            @ApiResponse(responseCode = "409", description = "Conflict - Insufficient stock for a product"),
+            @ApiResponse(responseCode = "422", description = "Unprocessable - Idempotency-Key already used for a different order")
     })
     @PostMapping("/place-order")
-    public ResponseEntity<OrderResponseDTO> placeOrder(@AuthenticationPrincipal User currentUser,@RequestBody @Valid OrderRequestDTO orderRequest){
-        return ResponseEntity.ok(orderService.placeOrder(currentUser, orderRequest));
+    public ResponseEntity<OrderResponseDTO> placeOrder(@AuthenticationPrincipal User currentUser,
+                                                       @RequestHeader(value = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
+                                                       @RequestBody @Valid OrderRequestDTO orderRequest){
+        return ResponseEntity.ok(orderIdempotencyService.placeOrder(currentUser, idempotencyKey, orderRequest));
+    }
+
+    @Operation(
+            summary = "Accept an order for asynchronous placement",
+            description = "Validates and queues the order, answering with a tracking id to poll for its status."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Accepted - Order queued for placement"),
+            @ApiResponse(responseCode = "401", description = "UnAuthorized - Authorization required"),
+            @ApiResponse(responseCode = "503", description = "Service Unavailable - Too many orders waiting, retry later")
+    })
+    @PostMapping("/intake")
+    public ResponseEntity<OrderIntakeDTO> acceptOrder(@AuthenticationPrincipal User currentUser,
+                                                      @RequestBody @Valid OrderRequestDTO orderRequest){
+        OrderIntakeDTO intake = orderIntakeService.enqueue(currentUser, orderRequest);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/orders/intake/" + intake.getTrackingId()))
+                .body(intake);
+    }
+
+    @Operation(
+            summary = "Status of an asynchronously placed order",
+            description = "Returns the status of an order accepted by the intake endpoint, with the order once placed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned the order status"),
+            @ApiResponse(responseCode = "401", description = "UnAuthorized - Authorization required"),
+            @ApiResponse(responseCode = "404", description = "Not Found - No order with this tracking id")
+    })
+    @GetMapping("/intake/{trackingId}")
+    public ResponseEntity<OrderIntakeDTO> findOrderStatus(@AuthenticationPrincipal User currentUser,
+                                                          @PathVariable String trackingId){
+        return ResponseEntity.ok(orderIntakeService.findStatus(currentUser, trackingId));
     }
 }
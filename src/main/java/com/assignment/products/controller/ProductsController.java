@@ -1,15 +1,36 @@
 package com.assignment.products.controller;
 
+import com.assignment.products.catalog.CatalogVersion;
+import com.assignment.products.enums.CatalogFormat;
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.model.ChangeToken;
+import com.assignment.products.model.ProductBulkUpdateItemDTO;
+import com.assignment.products.model.ProductBulkUpdateResultDTO;
+import com.assignment.products.model.ProductChangesDTO;
+import com.assignment.products.model.ProductCursor;
+import com.assignment.products.model.ProductImportResultDTO;
 import com.assignment.products.model.ProductRequestDTO;
 import com.assignment.products.model.ProductUpdateRequestDTO;
+import com.assignment.products.model.ProductsPageDTO;
 import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.service.ProductArchiveService;
+import com.assignment.products.service.ProductExportService;
+import com.assignment.products.service.ProductImportService;
+import com.assignment.products.service.ProductSearchService;
 import com.assignment.products.service.ProductsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,11 +40,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -31,19 +55,55 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductsController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String DEFAULT_PAGE_SIZE = "50";
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    static final int MAX_BULK_UPDATE_SIZE = 10000;
+
+    static final String DEFAULT_CHANGES_SIZE = "500";
+
+    static final int MAX_CHANGES_SIZE = 5000;
+
+    /**
+     * Listings depend on the caller's role, so they may only be kept by the client and must be revalidated.
+     */
+    private static final CacheControl LISTING_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final ProductsService productsService;
 
+    private final ProductSearchService productSearchService;
+
+    private final ProductExportService productExportService;
+
+    private final ProductArchiveService productArchiveService;
+
+    private final ProductImportService productImportService;
+
+    private final CatalogVersion catalogVersion;
+
     @Operation(
             summary = "Fetch All products",
-            description = "Fetch all the products. All users can view the products"
+            description = "Fetch all the products one page at a time. Pass the X-Next-Cursor response header as the cursor to fetch the next page. All users can view the products"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product details returned successfully"),
             @ApiResponse(responseCode = "401", description = "Authentication- Required")
     })
     @GetMapping("/")
-    ResponseEntity<List<ProductsResponseDTO>> findAllProducts(){
-        return ResponseEntity.ok(productsService.findAllProducts());
+    ResponseEntity<List<ProductsResponseDTO>> findAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        String eTag = catalogVersion.eTag(ProductsService.isRoleAdmin(), accept);
+        if (matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return toPageResponse(productsService.findAllProducts(sort, decodeCursor(cursor), limit), eTag);
     }
 
     @Operation(
@@ -74,6 +134,21 @@ public class ProductsController {
         return ResponseEntity.ok(productsService.updateProducts(productId, productRequestDTO));
     }
 
+    @Operation(
+            summary = "Updates many products at once",
+            description = "Applies partial updates to up to " + MAX_BULK_UPDATE_SIZE + " products in one transaction. Each item carries the product id and the fields to change. The response lists the outcome of every item in request order. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updates applied, see the status of each item"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    @PutMapping("/bulk-update")
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<List<ProductBulkUpdateResultDTO>> bulkUpdateProducts(
+            @RequestBody @Size(min = 1, max = MAX_BULK_UPDATE_SIZE) List<ProductBulkUpdateItemDTO> items){
+        return ResponseEntity.ok(productsService.bulkUpdateProducts(items));
+    }
+
     @Operation(
             summary = "Deletes an existing product",
             description = "Deletes a product. Requires ADMIN role."
@@ -91,7 +166,7 @@ public class ProductsController {
 
     @Operation(
             summary = "Search/Filters all products",
-            description = "Search/Filters all products based on User criteria."
+            description = "Search/Filters all products based on User criteria, one page at a time. Name searches match every word anywhere in the product name and are ordered by relevance unless a sort is given. Pass the X-Next-Cursor response header as the cursor to fetch the next page."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Returned product successfully based on Criteria"),
@@ -102,8 +177,126 @@ public class ProductsController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(defaultValue = "true") boolean available){
-        return ResponseEntity.ok(productsService.findByCriteria(name,minPrice, maxPrice, available));
+            @RequestParam(defaultValue = "true") boolean available,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ProductSort sort,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        String eTag = catalogVersion.eTag(ProductsService.isRoleAdmin(), accept);
+        if (matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return toPageResponse(productSearchService.findByCriteria(name,minPrice, maxPrice, available, sort, decodeCursor(cursor), limit), eTag);
+    }
+
+    @Operation(
+            summary = "Fetch product changes",
+            description = "Returns the products created, updated or deleted since a change token, oldest first. Deleted products are tombstones that carry only the id and deleted flag. Omit since for a full initial sync, then pass nextToken from the previous response; repeat while hasMore is true."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid change token"),
+            @ApiResponse(responseCode = "401", description = "UnAuthorized - Authorization required")
+    })
+    @GetMapping("/changes")
+    ResponseEntity<ProductChangesDTO> findProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = DEFAULT_CHANGES_SIZE) @Min(1) @Max(MAX_CHANGES_SIZE) int limit){
+        long sinceVersion = since == null || since.isBlank() ? 0 : ChangeToken.decode(since);
+        return ResponseEntity.ok(productsService.findChangesSince(sinceVersion, limit));
+    }
+
+    @Operation(
+            summary = "Fetch archived products",
+            description = "Fetch products that were deleted and later moved to the archive, one page at a time ordered by id. Pass the X-Next-Cursor response header as the cursor to fetch the next page. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archived products returned successfully"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    @GetMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<List<ProductsResponseDTO>> findArchivedProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Min(1) @Max(MAX_PAGE_SIZE) int limit){
+        ProductsPageDTO page = productArchiveService.findArchivedProducts(decodeCursor(cursor), limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getProducts());
+    }
+
+    @Operation(
+            summary = "Export all products",
+            description = "Streams every product visible to the caller as newline-delimited JSON or CSV, for bulk consumers such as search indexers."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products streamed successfully"),
+            @ApiResponse(responseCode = "401", description = "UnAuthorized - Authorization required")
+    })
+    @GetMapping("/export")
+    void exportProducts(@RequestParam(defaultValue = "NDJSON") CatalogFormat format, HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + format.getExtension());
+        productExportService.exportProducts(format, response.getOutputStream());
+    }
+
+    @Operation(
+            summary = "Bulk import products",
+            description = "Loads a product feed sent as newline-delimited JSON or CSV (header: name,description,price,quantity). Rows are validated one by one; invalid rows are skipped and reported by row number. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Feed processed, see the imported and rejected counts"),
+            @ApiResponse(responseCode = "400", description = "Malformed feed"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    ResponseEntity<ProductImportResultDTO> importProducts(HttpServletRequest request) throws IOException {
+        CatalogFormat format = CatalogFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(productImportService.importProducts(format, request.getInputStream()));
+    }
+
+    private static ProductCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+    }
+
+    /**
+     * Weak comparison as required for If-None-Match: a W/ prefix on either tag is ignored.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(LISTING_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    private static ResponseEntity<List<ProductsResponseDTO>> toPageResponse(ProductsPageDTO page, String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).cacheControl(LISTING_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getProducts());
     }
 
 }
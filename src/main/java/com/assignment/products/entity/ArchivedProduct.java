@@ -0,0 +1,49 @@
+package com.assignment.products.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A soft-deleted product moved out of {@code products} by the archival job. Rows are written by the job
+ * with SQL and never changed afterwards.
+ */
+@Entity
+@Immutable
+@Table(name = "products_archive")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedProduct {
+
+    @Id
+    long id;
+    String name;
+    String description;
+    BigDecimal price;
+    int quantity;
+    @Column(name = "created_time")
+    LocalDateTime createdAt;
+    @Column(name = "last_updated_time")
+    LocalDateTime updatedAt;
+    @Column(name = "deleted_time")
+    LocalDateTime deletedAt;
+    @Column(name = "archived_time")
+    LocalDateTime archivedAt;
+    @Column(name = "change_version")
+    long changeVersion;
+
+}
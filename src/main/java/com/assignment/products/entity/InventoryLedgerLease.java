@@ -0,0 +1,35 @@
+package com.assignment.products.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a ledger-managed product, held by the one instance whose stock ledger keeps its counter.
+ */
+@Entity
+@Table(name = "inventory_ledger_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class InventoryLedgerLease {
+
+    @Id
+    @Column(name = "product_id")
+    Long productId;
+    @Column(name = "owner", nullable = false, length = 36)
+    String owner;
+    @Column(name = "expires_time", nullable = false)
+    LocalDateTime expiresAt;
+}
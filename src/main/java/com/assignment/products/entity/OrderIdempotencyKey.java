@@ -0,0 +1,52 @@
+package com.assignment.products.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * An {@code Idempotency-Key} a user sent with a placed order, with a hash of the request and the encoded
+ * response so a retry can be answered without placing the order again.
+ */
+@Entity
+@Table(name = "order_idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderIdempotencyKey {
+
+    @EmbeddedId
+    Id id;
+    @Column(name = "request_hash", nullable = false, length = 64)
+    String requestHash;
+    @Column(name = "response", length = 1048576)
+    byte[] response;
+    @Column(name = "created_time", nullable = false)
+    LocalDateTime createdAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Id implements Serializable {
+
+        @Column(name = "user_id")
+        Long userId;
+        @Column(name = "idempotency_key", length = 255)
+        String idempotencyKey;
+    }
+}
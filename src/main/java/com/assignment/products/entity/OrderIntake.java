@@ -0,0 +1,58 @@
+package com.assignment.products.entity;
+
+import com.assignment.products.enums.OrderIntakeStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order accepted by the asynchronous intake endpoint. The request and, once placed, the response are kept
+ * as JSON so the status endpoint can answer without joining the order tables.
+ */
+@Entity
+@Table(name = "order_intake")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderIntake {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    long id;
+    @Column(name = "tracking_id", nullable = false, unique = true, length = 36)
+    String trackingId;
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+    @Column(name = "request", nullable = false, length = 65536)
+    String request;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    OrderIntakeStatus status;
+    @Column(name = "response", length = 65536)
+    String response;
+    @Column(name = "error", length = 1000)
+    String error;
+    @Column(name = "claim_token", length = 36)
+    String claimToken;
+    @Column(name = "attempts", nullable = false)
+    int attempts;
+    @Column(name = "created_time", nullable = false)
+    LocalDateTime createdAt;
+    @Column(name = "updated_time", nullable = false)
+    LocalDateTime updatedAt;
+}
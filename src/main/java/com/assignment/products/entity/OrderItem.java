@@ -32,10 +32,15 @@ public class OrderItem {
     @JoinColumn(name = "order_id", nullable = false)
     Order order;
 
+    // Exactly one of the two is set: the product moves to archivedProduct when it is archived
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "product_id", nullable = false)
+    @JoinColumn(name = "product_id")
     Product product;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "archived_product_id")
+    ArchivedProduct archivedProduct;
+
     int quantity;
     @Column(name = "unit_price")
     BigDecimal unitPrice;
@@ -43,4 +48,8 @@ public class OrderItem {
     BigDecimal discountApplied;
     @Column(name = "total_price")
     BigDecimal totalPrice;
+    @Column(name = "stock_pending")
+    boolean stockPending;
+    @Column(name = "stock_ledger", length = 36)
+    String stockLedger;
 }
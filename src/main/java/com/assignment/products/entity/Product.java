@@ -14,8 +14,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.generator.EventType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -26,7 +28,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@SQLDelete(sql = "UPDATE products SET is_deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE products SET is_deleted = true, deleted_time = CURRENT_TIMESTAMP, change_version = nextval('product_change_seq') WHERE id=?")
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Product {
 
@@ -43,6 +45,11 @@ public class Product {
     private LocalDateTime createdAt;
     @Column(name = "last_updated_time")
     private LocalDateTime updatedAt;
+    @Column(name = "deleted_time", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+    @Generated(event = {EventType.INSERT, EventType.UPDATE}, sql = "nextval('product_change_seq')")
+    @Column(name = "change_version")
+    private long changeVersion;
 
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,6 @@
+package com.assignment.products.enums;
+
+public enum BulkUpdateStatus {
+
+    UPDATED, NOT_FOUND, INVALID
+}
@@ -0,0 +1,30 @@
+package com.assignment.products.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+/**
+ * Line-oriented formats used to export and import the catalog in bulk.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CatalogFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    public static CatalogFormat fromContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        for (CatalogFormat format : values()) {
+            if (MediaType.parseMediaType(format.contentType).includes(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported catalog format: " + contentType);
+    }
+}
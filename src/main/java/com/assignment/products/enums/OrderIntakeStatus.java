@@ -0,0 +1,6 @@
+package com.assignment.products.enums;
+
+public enum OrderIntakeStatus {
+
+    PENDING, PROCESSING, COMPLETED, FAILED
+}
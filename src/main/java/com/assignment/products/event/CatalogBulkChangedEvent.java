@@ -0,0 +1,19 @@
+package com.assignment.products.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Published once by bulk write paths that change too many products to describe them one by one.
+ * Listeners treat the whole catalog as changed.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CatalogBulkChangedEvent {
+
+    long changedProducts;
+
+}
@@ -0,0 +1,30 @@
+package com.assignment.products.event;
+
+import com.assignment.products.model.ProductsResponseDTO;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Published by the product write paths with the state of a product before and after the write.
+ * {@code before} is null for a newly created product; {@code after} is null when the product is deleted.
+ * {@code changeVersion} is the version the write stamped on the row, 0 for a delete. Listeners run after
+ * their own commit, so events for one product can arrive out of order, and the version tells which write
+ * is newer.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductChangedEvent {
+
+    long productId;
+    ProductsResponseDTO before;
+    ProductsResponseDTO after;
+    long changeVersion;
+
+    public ProductChangedEvent(long productId, ProductsResponseDTO before, ProductsResponseDTO after) {
+        this(productId, before, after, after == null ? 0 : after.getChangeVersion());
+    }
+
+}
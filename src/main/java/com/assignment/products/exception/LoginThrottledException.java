@@ -0,0 +1,12 @@
+package com.assignment.products.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LoginThrottledException extends RuntimeException{
+
+    public LoginThrottledException(String message){
+        super(message);
+    }
+}
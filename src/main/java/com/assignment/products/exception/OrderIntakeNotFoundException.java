@@ -0,0 +1,12 @@
+package com.assignment.products.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class OrderIntakeNotFoundException extends RuntimeException{
+
+    public OrderIntakeNotFoundException(String message){
+        super(message);
+    }
+}
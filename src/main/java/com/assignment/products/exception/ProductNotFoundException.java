@@ -0,0 +1,19 @@
+package com.assignment.products.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+@Getter
+public class ProductNotFoundException extends RuntimeException{
+
+    private final List<Long> productIds;
+
+    public ProductNotFoundException(List<Long> productIds){
+        super("Products not found: " + productIds);
+        this.productIds = productIds;
+    }
+}
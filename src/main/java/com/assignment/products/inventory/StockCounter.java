@@ -0,0 +1,70 @@
+package com.assignment.products.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock of one ledger-managed product: the quantity last read from the database and the units reserved
+ * since then that are not yet written back, packed into one {@link AtomicLong}. Packing both lets a
+ * reservation check and take stock with a single compare-and-set, without a lock.
+ */
+final class StockCounter {
+
+    private final AtomicLong state;
+
+    StockCounter(int quantity) {
+        this.state = new AtomicLong(pack(quantity, 0));
+    }
+
+    /**
+     * Reserves {@code units} if at least that many are available.
+     */
+    boolean tryReserve(int units) {
+        while (true) {
+            long current = state.get();
+            int quantity = quantity(current);
+            int reserved = reserved(current);
+            if (quantity - reserved < units) {
+                return false;
+            }
+            if (state.compareAndSet(current, pack(quantity, reserved + units))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns units of a reservation whose order was rolled back.
+     */
+    void release(int units) {
+        state.getAndUpdate(current -> pack(quantity(current), reserved(current) - units));
+    }
+
+    /**
+     * Replaces the stored quantity once {@code appliedUnits} units reserved through this counter have been
+     * written to the database.
+     */
+    void persisted(int quantity, int appliedUnits) {
+        state.getAndUpdate(current -> pack(quantity, reserved(current) - appliedUnits));
+    }
+
+    int available() {
+        long current = state.get();
+        return quantity(current) - reserved(current);
+    }
+
+    int reserved() {
+        return reserved(state.get());
+    }
+
+    private static long pack(int quantity, int reserved) {
+        return ((long) quantity << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int quantity(long state) {
+        return (int) (state >> 32);
+    }
+
+    private static int reserved(long state) {
+        return (int) state;
+    }
+}
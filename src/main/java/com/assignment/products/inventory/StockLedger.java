@@ -0,0 +1,366 @@
+package com.assignment.products.inventory;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.exception.NotStockAvailableException;
+import com.assignment.products.service.ProductsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional in-memory stock ledger for hot products, such as flash sale items that would otherwise serialize
+ * every order on one {@code products} row lock. For the configured products the ledger is the authority on
+ * available stock: orders reserve units with a compare-and-set on a per-product {@link StockCounter} and
+ * save their order items as pending, tagged with this ledger. A scheduled flush applies the pending items of
+ * the leased products to {@code products.quantity} in coalesced batches (one UPDATE per product) and marks
+ * them applied in the same transaction; only the items tagged with this ledger are taken off its counters.
+ * All other products keep using the guarded SQL update.
+ * <p>
+ * The counters live in this process, so each configured product is leased to one instance through a row in
+ * {@code inventory_ledger_leases}, renewed after a third of its duration. Flushes and renewals run on a thread
+ * of their own, so other scheduled jobs cannot delay them, and once the lease has run out without a renewal
+ * the ledger stops reserving. Instances without the lease take the product's stock with the guarded SQL
+ * update instead, and take over the lease once it expires. Before loading the
+ * counter of a newly leased product the ledger applies whatever order items are still pending, so
+ * reservations committed by a previous owner are never sold again; items the previous owner commits later
+ * are applied by the next flush without touching the new counter. Every flush re-reads the quantities of
+ * the managed products, which picks up restocks and orders placed through other instances. On shutdown the
+ * pending items are applied before the leases are released.
+ * <p>
+ * Stock taken outside the ledger between two flushes can make a reservation exceed what the database still
+ * holds. Such an order is already committed, so its items are applied with the quantity clamped at zero and
+ * the oversold units are logged and counted.
+ */
+@Component
+@Slf4j
+public class StockLedger implements SmartInitializingSingleton {
+
+    private static final String SELECT_PENDING_SQL = "SELECT id, product_id, quantity, stock_ledger FROM order_items "
+            + "WHERE stock_pending = true AND product_id IN (:productIds) ORDER BY id LIMIT :limit FOR UPDATE";
+
+    private static final String DECREMENT_SQL = "UPDATE products SET quantity = quantity - ?, "
+            + "last_updated_time = CURRENT_TIMESTAMP, change_version = nextval('product_change_seq') WHERE id = ? AND quantity >= ?";
+
+    private static final String CLAMP_SQL = "UPDATE products SET quantity = 0, "
+            + "last_updated_time = CURRENT_TIMESTAMP, change_version = nextval('product_change_seq') WHERE id = ? AND quantity > 0";
+
+    private static final String MARK_APPLIED_SQL = "UPDATE order_items SET stock_pending = false WHERE id IN (:ids)";
+
+    private static final String SELECT_QUANTITIES_SQL = "SELECT id, quantity FROM products WHERE id IN (:ids) AND is_deleted = false";
+
+    private static final String RENEW_LEASES_SQL = "UPDATE inventory_ledger_leases SET owner = :owner, expires_time = :expires "
+            + "WHERE product_id IN (:ids) AND (owner = :owner OR expires_time < :now)";
+
+    private static final String SELECT_LEASED_SQL = "SELECT product_id FROM inventory_ledger_leases WHERE product_id IN (:ids)";
+
+    private static final String INSERT_LEASE_SQL = "INSERT INTO inventory_ledger_leases (product_id, owner, expires_time) VALUES (?, ?, ?)";
+
+    private static final String SELECT_OWNED_SQL = "SELECT product_id FROM inventory_ledger_leases WHERE product_id IN (:ids) AND owner = :owner";
+
+    private static final String RELEASE_LEASES_SQL = "DELETE FROM inventory_ledger_leases WHERE owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ProductsService productsService;
+
+    private final Counter reservations;
+
+    private final Counter rejections;
+
+    private final Counter oversold;
+
+    private final Counter expiredLeaseOrders;
+
+    private final Timer flushTimer;
+
+    @Getter
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${spring.application.inventory.ledger.product-ids:}")
+    Set<Long> productIds;
+
+    @Value("${spring.application.inventory.ledger.batch-size:1000}")
+    int batchSize;
+
+    @Value("${spring.application.inventory.ledger.lease:30s}")
+    Duration lease;
+
+    @Value("${spring.application.inventory.ledger.flush-interval:200ms}")
+    Duration flushInterval;
+
+    private volatile Map<Long, StockCounter> counters = Map.of();
+
+    private Set<Long> leased = Set.of();
+
+    private volatile long renewedAt;
+
+    private volatile long leaseValidUntil;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean released;
+
+    public StockLedger(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                       TransactionTemplate transactionTemplate, ProductsService productsService,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productsService = productsService;
+        this.reservations = meterRegistry.counter("inventory.ledger.reservations", "outcome", "reserved");
+        this.rejections = meterRegistry.counter("inventory.ledger.reservations", "outcome", "rejected");
+        this.oversold = meterRegistry.counter("inventory.ledger.oversold");
+        this.expiredLeaseOrders = meterRegistry.counter("inventory.ledger.reservations", "outcome", "lease-expired");
+        this.flushTimer = meterRegistry.timer("inventory.ledger.flush");
+        meterRegistry.gauge("inventory.ledger.unflushed", this,
+                ledger -> ledger.counters.values().stream().mapToInt(StockCounter::reserved).sum());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        renewLeases();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("stock-ledger").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, flushInterval.toNanos(), flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+        log.info("Stock ledger managing {} of {} products", counters.size(), productIds.size());
+    }
+
+    @PreDestroy
+    synchronized void releaseLeases() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        released = true;
+        if (!leased.isEmpty()) {
+            flush();
+            leased = Set.of();
+            jdbcTemplate.update(RELEASE_LEASES_SQL, owner);
+        }
+    }
+
+    public boolean manages(long productId) {
+        return counters.containsKey(productId);
+    }
+
+    /**
+     * Reserves stock of a managed product. Inside a transaction the reservation is returned if the
+     * transaction rolls back; the order items of a committed order must be saved as stock pending.
+     *
+     * @return false when this instance does not hold the product's lease or could not renew it in time, its
+     * stock must then be taken with the guarded SQL update
+     * @throws NotStockAvailableException when fewer than {@code units} are available
+     */
+    public boolean reserve(Product product, int units) {
+        StockCounter counter = counters.get(product.getId());
+        if (counter == null) {
+            return false;
+        }
+        if (System.nanoTime() - leaseValidUntil >= 0) {
+            expiredLeaseOrders.increment();
+            return false;
+        }
+        if (!counter.tryReserve(units)) {
+            rejections.increment();
+            throw new NotStockAvailableException("Insufficient Stock for the product: " + product.getName());
+        }
+        reservations.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        counter.release(units);
+                    } else if (status == STATUS_UNKNOWN) {
+                        // Keeping the units reserved undersells until restart rather than risking an oversell
+                        log.warn("Outcome of an order reserving {} units of product {} is unknown", units, product.getId());
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    public int available(long productId) {
+        StockCounter counter = counters.get(productId);
+        return counter == null ? 0 : counter.available();
+    }
+
+    void scheduledFlush() {
+        if (released) {
+            return;
+        }
+        try {
+            if (System.nanoTime() - renewedAt >= lease.toNanos() / 3) {
+                renewLeases();
+            }
+            if (!counters.isEmpty()) {
+                flush();
+            }
+        } catch (RuntimeException e) {
+            // Thrown out of the task it would cancel the schedule
+            log.error("Stock ledger flush failed, it is retried in {}", flushInterval, e);
+        }
+    }
+
+    /**
+     * Renews the leases this instance holds and takes the expired or unclaimed ones. Counters are dropped for
+     * products leased to another instance and loaded for newly leased products.
+     */
+    synchronized void renewLeases() {
+        long started = System.nanoTime();
+        renewedAt = started;
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp expires = Timestamp.valueOf(now.plus(lease));
+        namedParameterJdbcTemplate.update(RENEW_LEASES_SQL,
+                Map.of("owner", owner, "expires", expires, "now", Timestamp.valueOf(now), "ids", productIds));
+        Set<Long> unclaimed = new HashSet<>(productIds);
+        unclaimed.removeAll(namedParameterJdbcTemplate.queryForList(SELECT_LEASED_SQL, Map.of("ids", productIds), Long.class));
+        for (Long productId : unclaimed) {
+            try {
+                jdbcTemplate.update(INSERT_LEASE_SQL, productId, owner, expires);
+            } catch (DuplicateKeyException e) {
+                // Claimed by another instance in the meantime
+            }
+        }
+        Set<Long> owned = Set.copyOf(namedParameterJdbcTemplate.queryForList(SELECT_OWNED_SQL,
+                Map.of("ids", productIds, "owner", owner), Long.class));
+        // Counted from before the renewal, so this instance stops selling no later than another may take over
+        leaseValidUntil = started + lease.toNanos();
+        if (owned.equals(leased)) {
+            return;
+        }
+        Map<Long, StockCounter> managed = new HashMap<>(counters);
+        managed.keySet().retainAll(owned);
+        leased.stream().filter(productId -> !owned.contains(productId))
+                .forEach(productId -> log.warn("Lease on product {} expired and was taken by another instance", productId));
+        Set<Long> gained = new HashSet<>(owned);
+        gained.removeAll(leased);
+        if (!gained.isEmpty()) {
+            // Reservations committed by a previous owner must reach the database before the counters are loaded
+            flush(gained);
+            Map<Long, Integer> quantities = readQuantities(gained);
+            gained.forEach(productId -> {
+                Integer quantity = quantities.get(productId);
+                if (quantity == null) {
+                    log.warn("Product {} is not a live product, its stock stays in the database", productId);
+                } else {
+                    managed.put(productId, new StockCounter(quantity));
+                }
+            });
+        }
+        leased = owned;
+        counters = Map.copyOf(managed);
+    }
+
+    /**
+     * Writes pending reservations of the leased products to the database, one chunk of order items per
+     * transaction.
+     *
+     * @return the number of order items applied
+     */
+    public synchronized int flush() {
+        return flush(leased);
+    }
+
+    private int flush(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        return flushTimer.record(() -> {
+            int flushed = 0;
+            while (true) {
+                FlushedChunk chunk = transactionTemplate.execute(status -> applyPendingChunk(productIds));
+                if (chunk == null) {
+                    return flushed;
+                }
+                chunk.quantities().forEach((productId, quantity) -> {
+                    StockCounter counter = counters.get(productId);
+                    if (counter != null) {
+                        counter.persisted(quantity, chunk.reservedHere().getOrDefault(productId, 0));
+                    }
+                });
+                productsService.publishStockTaken(chunk.applied());
+                flushed += chunk.items();
+                if (chunk.items() < batchSize) {
+                    return flushed;
+                }
+            }
+        });
+    }
+
+    private FlushedChunk applyPendingChunk(Set<Long> productIds) {
+        Map<Long, Integer> applied = new HashMap<>();
+        Map<Long, Integer> reservedHere = new HashMap<>();
+        List<Long> itemIds = namedParameterJdbcTemplate.query(SELECT_PENDING_SQL,
+                Map.of("productIds", productIds, "limit", batchSize), (rs, rowNum) -> {
+                    applied.merge(rs.getLong("product_id"), rs.getInt("quantity"), Integer::sum);
+                    if (owner.equals(rs.getString("stock_ledger"))) {
+                        reservedHere.merge(rs.getLong("product_id"), rs.getInt("quantity"), Integer::sum);
+                    }
+                    return rs.getLong("id");
+                });
+        if (!itemIds.isEmpty()) {
+            List<Map.Entry<Long, Integer>> decrements = List.copyOf(applied.entrySet());
+            int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, decrements.stream()
+                    .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()}).toList());
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    clamp(decrements.get(i).getKey(), decrements.get(i).getValue());
+                }
+            }
+            namedParameterJdbcTemplate.update(MARK_APPLIED_SQL, Map.of("ids", itemIds));
+        }
+        Map<Long, Integer> quantities = counters.isEmpty() ? Map.of() : readQuantities(counters.keySet());
+        return new FlushedChunk(itemIds.size(), applied, reservedHere, quantities);
+    }
+
+    private void clamp(long productId, int units) {
+        Integer quantity = readQuantities(List.of(productId)).getOrDefault(productId, 0);
+        jdbcTemplate.update(CLAMP_SQL, productId);
+        log.warn("Product {} was oversold by {} units, its quantity is set to zero", productId, units - quantity);
+        oversold.increment(units - quantity);
+    }
+
+    private Map<Long, Integer> readQuantities(Collection<Long> ids) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        namedParameterJdbcTemplate.query(SELECT_QUANTITIES_SQL, Map.of("ids", ids),
+                rs -> { quantities.put(rs.getLong("id"), rs.getInt("quantity")); });
+        return quantities;
+    }
+
+    private record FlushedChunk(int items, Map<Long, Integer> applied, Map<Long, Integer> reservedHere,
+                                Map<Long, Integer> quantities) {
+    }
+}
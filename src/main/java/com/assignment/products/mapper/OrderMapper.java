@@ -19,6 +19,14 @@ public class OrderMapper {
     }
 
     private OrderItemResponseDTO convertToDto(OrderItem orderItem) {
+        if (orderItem.getProduct() == null) {
+            // The product was archived; the archived row keeps its id and name
+            return OrderItemResponseDTO.builder()
+                    .productId(orderItem.getArchivedProduct().getId())
+                    .quantity(orderItem.getQuantity())
+                    .productName(orderItem.getArchivedProduct().getName())
+                    .build();
+        }
         return OrderItemResponseDTO.builder()
                 .productId(orderItem.getProduct().getId())
                 .quantity(orderItem.getQuantity())
@@ -1,5 +1,6 @@
 package com.assignment.products.mapper;
 
+import com.assignment.products.entity.ArchivedProduct;
 import com.assignment.products.entity.Product;
 import com.assignment.products.model.ProductRequestDTO;
 import com.assignment.products.model.ProductsResponseDTO;
@@ -18,6 +19,21 @@ public class ProductMapper {
                 .isDeleted(product.isDeleted())
                 .createTime(product.getCreatedAt())
                 .lastUpdateTime(product.getUpdatedAt())
+                .changeVersion(product.getChangeVersion())
+                .build();
+    }
+
+    public ProductsResponseDTO convertArchivedToDTO(ArchivedProduct product) {
+        return ProductsResponseDTO.builder()
+                .description(product.getDescription())
+                .id(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .quantity(product.getQuantity())
+                .isDeleted(true)
+                .createTime(product.getCreatedAt())
+                .lastUpdateTime(product.getUpdatedAt())
+                .changeVersion(product.getChangeVersion())
                 .build();
     }
 
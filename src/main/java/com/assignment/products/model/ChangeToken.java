@@ -0,0 +1,34 @@
+package com.assignment.products.model;
+
+import com.assignment.products.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position in the product change sequence, handed to clients after each delta sync.
+ */
+public final class ChangeToken {
+
+    private static final String PREFIX = "v:";
+
+    private ChangeToken() {
+    }
+
+    public static String encode(long changeVersion) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + changeVersion).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(raw);
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid change token");
+        }
+    }
+}
@@ -15,6 +15,7 @@ import lombok.experimental.FieldDefaults;
 public class LoginResponseDTO {
 
     String jwtToken;
+    String refreshToken;
     String userId;
 
 }
@@ -0,0 +1,33 @@
+package com.assignment.products.model;
+
+import com.assignment.products.enums.OrderIntakeStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of an order accepted by the asynchronous intake. {@code order} is set once the order is placed and
+ * {@code error} when it could not be placed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderIntakeDTO {
+
+    String trackingId;
+    OrderIntakeStatus status;
+    OrderResponseDTO order;
+    String error;
+    LocalDateTime createTime;
+    LocalDateTime lastUpdateTime;
+
+}
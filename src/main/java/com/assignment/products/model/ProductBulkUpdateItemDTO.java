@@ -0,0 +1,28 @@
+package com.assignment.products.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductBulkUpdateItemDTO {
+
+    @Schema(description = "Id of the product to update", example = "6")
+    @Positive(message = "Product ID must be greater than 0")
+    long id;
+
+    @Valid
+    @JsonUnwrapped
+    ProductUpdateRequestDTO changes;
+}
@@ -0,0 +1,22 @@
+package com.assignment.products.model;
+
+import com.assignment.products.enums.BulkUpdateStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductBulkUpdateResultDTO {
+
+    long id;
+    BulkUpdateStatus status;
+    String message;
+
+}
@@ -0,0 +1,41 @@
+package com.assignment.products.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a delta sync: the current state of a created or updated product, or a tombstone carrying
+ * only the id of a deleted one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChangeDTO {
+
+    long id;
+    String name;
+    String description;
+    BigDecimal price;
+    Integer quantity;
+    boolean isDeleted;
+    LocalDateTime createTime;
+    LocalDateTime lastUpdateTime;
+    @JsonIgnore
+    long changeVersion;
+
+    public static ProductChangeDTO tombstone(long id, long changeVersion) {
+        return ProductChangeDTO.builder().id(id).isDeleted(true).changeVersion(changeVersion).build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.assignment.products.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductChangesDTO {
+
+    List<ProductChangeDTO> changes;
+    String nextToken;
+    boolean hasMore;
+
+}
@@ -0,0 +1,56 @@
+package com.assignment.products.model;
+
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.exception.InvalidCursorException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort key (price or relevance rank) and id of the last product on the previous page.
+ * Encoded as url-safe base64 so clients treat it as a token rather than a query they can edit.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductCursor {
+
+    private static final String SEPARATOR = ":";
+
+    ProductSort sort;
+    BigDecimal price;
+    Integer rank;
+    long id;
+
+    public static ProductCursor after(ProductSort sort, ProductsResponseDTO last, int rank) {
+        return new ProductCursor(sort, last.getPrice(), rank, last.getId());
+    }
+
+    public String encode() {
+        String raw = switch (sort) {
+            case ID -> sort.name() + SEPARATOR + id;
+            case PRICE -> sort.name() + SEPARATOR + price.toPlainString() + SEPARATOR + id;
+            case RELEVANCE -> sort.name() + SEPARATOR + rank + SEPARATOR + id;
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+            ProductSort sort = ProductSort.valueOf(parts[0]);
+            return switch (sort) {
+                case ID -> new ProductCursor(sort, null, null, Long.parseLong(parts[1]));
+                case PRICE -> new ProductCursor(sort, new BigDecimal(parts[1]), null, Long.parseLong(parts[2]));
+                case RELEVANCE -> new ProductCursor(sort, null, Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+            };
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid page cursor");
+        }
+    }
+}
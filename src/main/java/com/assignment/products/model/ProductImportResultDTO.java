@@ -0,0 +1,24 @@
+package com.assignment.products.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductImportResultDTO {
+
+    long imported;
+    long rejected;
+    List<ProductImportErrorDTO> errors;
+    boolean errorsTruncated;
+
+}
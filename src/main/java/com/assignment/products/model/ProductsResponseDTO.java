@@ -1,6 +1,7 @@
 package com.assignment.products.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,5 +27,8 @@ public class ProductsResponseDTO {
     boolean isDeleted;
     LocalDateTime createTime;
     LocalDateTime lastUpdateTime;
+    // Not part of the API: orders the deltas applied to the in-memory catalog
+    @JsonIgnore
+    long changeVersion;
 
 }
@@ -0,0 +1,23 @@
+package com.assignment.products.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RefreshTokenRequestDTO {
+
+    @Schema(description = "Refresh token returned by the last login or refresh", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "Refresh token is required")
+    String refreshToken;
+
+}
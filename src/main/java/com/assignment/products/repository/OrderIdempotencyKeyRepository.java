@@ -0,0 +1,31 @@
+package com.assignment.products.repository;
+
+import com.assignment.products.entity.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, OrderIdempotencyKey.Id> {
+
+    /**
+     * Inserts the key without a response. A second insert of the same key waits for the first transaction
+     * and fails with a duplicate key error if it commits.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_idempotency_keys (user_id, idempotency_key, request_hash, created_time) "
+            + "VALUES (:userId, :idempotencyKey, :requestHash, :createdAt)", nativeQuery = true)
+    void claim(@Param("userId") long userId, @Param("idempotencyKey") String idempotencyKey,
+               @Param("requestHash") String requestHash, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("update OrderIdempotencyKey k set k.response = :response where k.id = :id")
+    void storeResponse(@Param("id") OrderIdempotencyKey.Id id, @Param("response") byte[] response);
+
+    @Modifying
+    @Query("delete from OrderIdempotencyKey k where k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+}
@@ -0,0 +1,24 @@
+package com.assignment.products.repository;
+
+import com.assignment.products.entity.OrderIntake;
+import com.assignment.products.enums.OrderIntakeStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface OrderIntakeRepository extends JpaRepository<OrderIntake, Long> {
+
+    Optional<OrderIntake> findByTrackingIdAndUserId(String trackingId, Long userId);
+
+    long countByStatus(OrderIntakeStatus status);
+
+    @Modifying
+    @Query("delete from OrderIntake i where i.status in :statuses and i.updatedAt < :cutoff")
+    int deleteUpdatedBefore(@Param("statuses") Collection<OrderIntakeStatus> statuses, @Param("cutoff") LocalDateTime cutoff);
+
+}
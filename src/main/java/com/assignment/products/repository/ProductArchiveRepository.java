@@ -0,0 +1,18 @@
+package com.assignment.products.repository;
+
+import com.assignment.products.entity.ArchivedProduct;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProductArchiveRepository extends JpaRepository<ArchivedProduct, Long> {
+
+    List<ArchivedProduct> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    @Query("select a from ArchivedProduct a where a.changeVersion > :since and a.changeVersion <= :until order by a.changeVersion")
+    List<ArchivedProduct> findArchivedSince(@Param("since") long since, @Param("until") long until, Limit limit);
+
+}
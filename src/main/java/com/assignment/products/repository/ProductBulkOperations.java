@@ -0,0 +1,18 @@
+package com.assignment.products.repository;
+
+import com.assignment.products.model.ProductBulkUpdateItemDTO;
+
+import java.util.List;
+
+/**
+ * Set-based writes that bypass the persistence context, for requests touching many products at once.
+ */
+public interface ProductBulkOperations {
+
+    /**
+     * Applies each patch to its live product; fields left null keep their value.
+     *
+     * @return the number of rows changed by each patch, in the order given
+     */
+    int[] bulkUpdate(List<ProductBulkUpdateItemDTO> items);
+}
@@ -0,0 +1,41 @@
+package com.assignment.products.repository;
+
+import com.assignment.products.model.ProductBulkUpdateItemDTO;
+import com.assignment.products.model.ProductUpdateRequestDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductBulkOperationsImpl implements ProductBulkOperations {
+
+    // One statement shape for every patch, so the whole request goes out as JDBC batches
+    private static final String UPDATE_SQL = "UPDATE products SET name = COALESCE(?, name), "
+            + "description = COALESCE(?, description), price = COALESCE(?, price), quantity = COALESCE(?, quantity), "
+            + "last_updated_time = ?, change_version = nextval('product_change_seq') WHERE id = ? AND is_deleted = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.application.bulk-update.batch-size:1000}")
+    int batchSize;
+
+    @Override
+    public int[] bulkUpdate(List<ProductBulkUpdateItemDTO> items) {
+        LocalDateTime now = LocalDateTime.now();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, items, batchSize, (ps, item) -> {
+            ProductUpdateRequestDTO changes = item.getChanges();
+            ps.setObject(1, changes.getName(), Types.VARCHAR);
+            ps.setObject(2, changes.getDescription(), Types.VARCHAR);
+            ps.setObject(3, changes.getPrice(), Types.NUMERIC);
+            ps.setObject(4, changes.getQuantity(), Types.INTEGER);
+            ps.setObject(5, now);
+            ps.setLong(6, item.getId());
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+    }
+}
@@ -0,0 +1,23 @@
+package com.assignment.products.repository;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.model.ProductsResponseDTO;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Read queries that select product columns straight into response DTOs, so no entity is instantiated,
+ * registered in the persistence context or snapshotted for dirty checking.
+ */
+public interface ProductProjections {
+
+    /**
+     * Returns up to {@code limit} matching products in {@code sort} order. A specification that orders the
+     * query itself, such as {@link ProductSpecification#orderByRelevance(String)}, takes precedence.
+     */
+    List<ProductsResponseDTO> findResponses(Specification<Product> spec, Sort sort, int limit);
+
+    List<ProductsResponseDTO> findResponses(Specification<Product> spec, Sort sort);
+}
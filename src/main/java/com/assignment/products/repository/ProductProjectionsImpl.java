@@ -0,0 +1,58 @@
+package com.assignment.products.repository;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.model.ProductsResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductProjectionsImpl implements ProductProjections {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ProductsResponseDTO> findResponses(Specification<Product> spec, Sort sort, int limit) {
+        return createQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<ProductsResponseDTO> findResponses(Specification<Product> spec, Sort sort) {
+        return createQuery(spec, sort).getResultList();
+    }
+
+    private TypedQuery<ProductsResponseDTO> createQuery(Specification<Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductsResponseDTO> query = cb.createQuery(ProductsResponseDTO.class);
+        Root<Product> root = query.from(Product.class);
+        // Argument order follows the ProductsResponseDTO all-args constructor
+        query.select(cb.construct(ProductsResponseDTO.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("description"),
+                root.get("price"),
+                root.get("quantity"),
+                root.get("isDeleted"),
+                root.get("createdAt"),
+                root.get("updatedAt"),
+                root.get("changeVersion")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (query.getOrderList().isEmpty() && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+}
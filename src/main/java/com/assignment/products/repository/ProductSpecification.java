@@ -1,21 +1,39 @@
 package com.assignment.products.repository;
 
 import com.assignment.products.entity.Product;
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.model.ProductCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 @Component
 public class ProductSpecification {
 
+    private static final char LIKE_ESCAPE = '\\';
+
+    private static final int EXACT_MATCH = 0;
+    private static final int PREFIX_MATCH = 1;
+    private static final int WORD_PREFIX_MATCH = 2;
+    private static final int SUBSTRING_MATCH = 3;
+
     public Specification<Product> filterProducts(String name, BigDecimal minPrice, BigDecimal maxPrice, boolean onlyAvailable, boolean isAdmin) {
         return (root, query, cb) -> {
             Specification<Product> spec = Specification.unrestricted();
 
-            if (StringUtils.hasText(name)) {
-                spec = spec.and((r, q, b) -> b.like(b.lower(r.get("name")), "%" + name.toLowerCase() + "%"));
+            // Every token must appear somewhere in the name. On PostgreSQL lower(name) LIKE '%token%'
+            // is served by the trigram index idx_products_name_trgm
+            for (String token : tokenize(name)) {
+                spec = spec.and((r, q, b) -> b.like(b.lower(r.get("name")), "%" + escapeLike(token) + "%", LIKE_ESCAPE));
             }
             if (minPrice != null) {
                 spec = spec.and((r, q, b) -> b.greaterThanOrEqualTo(r.get("price"), minPrice));
@@ -35,4 +53,85 @@ public class ProductSpecification {
             return spec.toPredicate(root, query, cb);
         };
     }
+
+    /**
+     * Keyset predicate selecting the rows that sort after the cursor, or no restriction for the first page.
+     */
+    public Specification<Product> afterCursor(ProductCursor cursor, String name) {
+        if (cursor == null) {
+            return Specification.unrestricted();
+        }
+        return (root, query, cb) -> switch (cursor.getSort()) {
+            case ID -> cb.greaterThan(root.get("id"), cursor.getId());
+            case PRICE -> cb.or(
+                    cb.greaterThan(root.get("price"), cursor.getPrice()),
+                    cb.and(cb.equal(root.get("price"), cursor.getPrice()), cb.greaterThan(root.get("id"), cursor.getId())));
+            case RELEVANCE -> {
+                Expression<Integer> rank = relevanceRank(root, cb, normalize(name));
+                yield cb.or(
+                        cb.greaterThan(rank, cursor.getRank()),
+                        cb.and(cb.equal(rank, cursor.getRank()), cb.greaterThan(root.get("id"), cursor.getId())));
+            }
+        };
+    }
+
+    /**
+     * Orders by match quality (exact name, name prefix, word prefix, then any substring) and then by id.
+     * The ordering is an expression, so it is applied through the query rather than a {@link Sort}.
+     */
+    public Specification<Product> orderByRelevance(String name) {
+        return (root, query, cb) -> {
+            query.orderBy(cb.asc(relevanceRank(root, cb, normalize(name))), cb.asc(root.get("id")));
+            return null;
+        };
+    }
+
+    public static Sort sortFor(ProductSort productSort) {
+        return switch (productSort) {
+            case ID -> Sort.by("id");
+            case PRICE -> Sort.by("price", "id");
+            case RELEVANCE -> Sort.unsorted();
+        };
+    }
+
+    /**
+     * Java counterpart of the relevance expression, used to build the cursor for the last row of a page.
+     */
+    public static int relevanceRank(String name, String productName) {
+        String term = normalize(name);
+        String candidate = productName == null ? "" : productName.toLowerCase(Locale.ROOT);
+        if (candidate.equals(term)) {
+            return EXACT_MATCH;
+        }
+        if (candidate.startsWith(term)) {
+            return PREFIX_MATCH;
+        }
+        if (candidate.contains(" " + term)) {
+            return WORD_PREFIX_MATCH;
+        }
+        return SUBSTRING_MATCH;
+    }
+
+    public static String normalize(String name) {
+        return StringUtils.hasText(name) ? name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ") : "";
+    }
+
+    private static List<String> tokenize(String name) {
+        String normalized = normalize(name);
+        return normalized.isEmpty() ? List.of() : Arrays.asList(normalized.split(" "));
+    }
+
+    private static Expression<Integer> relevanceRank(Root<Product> root, CriteriaBuilder cb, String term) {
+        Expression<String> lowerName = cb.lower(root.get("name"));
+        String escaped = escapeLike(term);
+        return cb.<Integer>selectCase()
+                .when(cb.equal(lowerName, term), cb.literal(EXACT_MATCH))
+                .when(cb.like(lowerName, escaped + "%", LIKE_ESCAPE), cb.literal(PREFIX_MATCH))
+                .when(cb.like(lowerName, "% " + escaped + "%", LIKE_ESCAPE), cb.literal(WORD_PREFIX_MATCH))
+                .otherwise(cb.literal(SUBSTRING_MATCH));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
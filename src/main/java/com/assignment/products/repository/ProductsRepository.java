@@ -1,9 +1,32 @@
 package com.assignment.products.repository;
 
 import com.assignment.products.entity.Product;
+import com.assignment.products.model.ProductChangeDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductsRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+import java.util.List;
+
+public interface ProductsRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductBulkOperations, ProductProjections {
+
+    @Query("select new com.assignment.products.model.ProductChangeDTO(p.id, p.name, p.description, p.price, p.quantity, "
+            + "p.isDeleted, p.createdAt, p.updatedAt, p.changeVersion) "
+            + "from Product p where p.changeVersion > :since and p.changeVersion <= :until order by p.changeVersion")
+    List<ProductChangeDTO> findChangesSince(@Param("since") long since, @Param("until") long until, Limit limit);
+
+    /**
+     * Takes {@code quantity} units of stock in one statement, only if that many are left.
+     * Returns 0 when the product is missing, deleted or short of stock.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE products SET quantity = quantity - :quantity, last_updated_time = CURRENT_TIMESTAMP, "
+            + "change_version = nextval('product_change_seq') "
+            + "WHERE id = :id AND quantity >= :quantity AND is_deleted = false", nativeQuery = true)
+    int decrementStock(@Param("id") long id, @Param("quantity") int quantity);
 
 }
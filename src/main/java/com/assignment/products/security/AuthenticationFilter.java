@@ -1,11 +1,14 @@
 package com.assignment.products.security;
 
 import com.assignment.products.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,9 +23,16 @@ public class AuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
     JwtService jwtService;
-    
+
     @Autowired UserDetailsServiceImpl userDetailsService;
-    
+
+    /**
+     * When enabled, the principal is rebuilt from the user id and role in the verified token
+     * instead of loading the user from the database on every request.
+     */
+    @Value("${spring.jwt.principal-from-token:true}")
+    boolean principalFromToken;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -33,10 +43,26 @@ public class AuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         String jwt = authHeader.substring(7);
-        String userName = jwtService.extractUsername(jwt);
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(jwt);
+        } catch (JwtException e) {
+            // Expired or invalid tokens leave the request unauthenticated so the client can refresh
+            logger.debug("Rejected bearer token: " + e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (jwtService.isRefreshToken(claims)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String userName = claims.getSubject();
         if(userName != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = userDetailsService.loadUserByUsername(
-                    userName);
+            UserDetails userDetails = principalFromToken ? jwtService.extractPrincipal(claims) : null;
+            if (userDetails == null) {
+                // Database lookup for tokens issued before id and role were added as claims
+                userDetails = userDetailsService.loadUserByUsername(userName);
+            }
             if(jwtService.isTokenValid(userName, userDetails, jwt)){
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,66 +1,206 @@
 package com.assignment.products.security;
 
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
 import com.assignment.products.model.LoginResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    static final String USER_ID_CLAIM = "uid";
+
+    static final String ROLE_CLAIM = "role";
+
+    static final String TOKEN_TYPE_CLAIM = "typ";
+
+    static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    static final String FAMILY_CLAIM = "fam";
+
     @Value("${spring.jwt.secret-key}")
     String securityKey;
 
     @Value("${spring.jwt.token.expiry}")
     int expiryTime;
 
-    private Key getSignInKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(securityKey));
+    @Value("${spring.jwt.refresh-token.expiry:1209600000}")
+    long refreshExpiryTime;
+
+    @Value("${spring.jwt.claims-cache.max-size:10000}")
+    long claimsCacheMaxSize;
+
+    private Key signInKey;
+
+    private JwtParser jwtParser;
+
+    /**
+     * Verified claims keyed by the SHA-256 digest of the compact token, so a token is only
+     * HMAC-verified and parsed the first time it is seen. Each entry expires with its token.
+     * Refresh tokens are used once and live for weeks, so they are verified every time and not cached.
+     */
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(securityKey));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
 
     public LoginResponseDTO validateAndGenerateToken(UserDetails user){
+        return generateTokens(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Issues a new access token together with the next refresh token of the given rotation family.
+     */
+    public LoginResponseDTO generateTokens(UserDetails user, String familyId){
         return LoginResponseDTO.builder()
                 .jwtToken(generateToken(user))
+                .refreshToken(generateRefreshToken(user, familyId))
                 .userId(user.getUsername())
                 .build();
     }
 
     public String generateToken(UserDetails userDetails){
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder();
+        if (userDetails instanceof User user) {
+            builder.claim(USER_ID_CLAIM, user.getId())
+                    .claim(ROLE_CLAIM, user.getRole().name());
+        }
+        return builder
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiryTime))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public String generateRefreshToken(UserDetails userDetails, String familyId){
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
+                .claim(FAMILY_CLAIM, familyId)
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + refreshExpiryTime))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
+    }
+
+    public String extractFamily(Claims claims) {
+        return claims.get(FAMILY_CLAIM, String.class);
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public boolean isTokenValid(String userName, UserDetails userDetails, String token) {
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token)
+                && !isRefreshToken(extractAllClaims(token)));
     }
 
     private boolean isTokenExpired(String token) {
         return extractClaim(token, Claims::getExpiration).before(new Date());
     }
 
+    /**
+     * Rebuilds the authenticated user from the id and role carried in verified claims,
+     * or returns null for tokens issued without them.
+     */
+    public User extractPrincipal(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return User.builder()
+                .id(userId.longValue())
+                .userName(claims.getSubject())
+                .role(Role.valueOf(role))
+                .build();
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(extractAllClaims(token));
+    }
+
+    public Claims extractAllClaims(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(digest);
+        if (claims == null) {
+            // Parsing throws for a bad signature or an expired token, so only verified claims are cached
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            if (!isRefreshToken(claims)) {
+                verifiedClaims.put(digest, claims);
+            }
+        }
+        return claims;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,101 @@
+package com.assignment.products.security;
+
+import com.assignment.products.model.LoginResponseDTO;
+import com.assignment.products.service.UserDetailsServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exchanges a refresh token for a new access token and the next refresh token of the same family.
+ * Every refresh token can be used once. Presenting a token that was already used revokes its whole
+ * family, because either the client or an attacker still holds a stale copy.
+ * <p>
+ * The revocation store only keeps token ids and family ids until the tokens they cover expire, and at most
+ * {@code spring.jwt.revocation-store.max-size} of each. When it is full an entry is dropped before it expires
+ * and a warning is logged, since reuse of a dropped token is no longer detected.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private final JwtService jwtService;
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    private final Cache<String, Long> usedTokenIds;
+
+    private final Cache<String, Long> revokedFamilies;
+
+    public RefreshTokenService(JwtService jwtService, UserDetailsServiceImpl userDetailsService,
+                               @Value("${spring.jwt.revocation-store.max-size:100000}") long maxSize) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.usedTokenIds = newRevocationStore(maxSize, "used refresh token");
+        this.revokedFamilies = newRevocationStore(maxSize, "revoked token family");
+    }
+
+    public LoginResponseDTO refresh(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        if (!jwtService.isRefreshToken(claims) || claims.getId() == null) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        String familyId = jwtService.extractFamily(claims);
+        long expiresAt = claims.getExpiration().getTime();
+        if (revokedFamilies.getIfPresent(familyId) != null) {
+            throw new BadCredentialsException("Refresh token has been revoked");
+        }
+        if (usedTokenIds.asMap().putIfAbsent(claims.getId(), expiresAt) != null) {
+            log.warn("Refresh token reuse detected for user {}, revoking token family", claims.getSubject());
+            // Later tokens of the family can live up to one full refresh lifetime from now
+            revokedFamilies.put(familyId, System.currentTimeMillis() + jwtService.refreshExpiryTime);
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+
+        UserDetails user = userDetailsService.loadUserByUsername(claims.getSubject());
+        return jwtService.generateTokens(user, familyId);
+    }
+
+    private static Cache<String, Long> newRevocationStore(long maxSize, String entryName) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .removalListener((String key, Long expiresAt, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        log.warn("Revocation store is full, dropped a {} before it expired", entryName);
+                    }
+                })
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long expiresAt, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(expiresAt - System.currentTimeMillis(), 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long expiresAt, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,336 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.Order;
+import com.assignment.products.entity.OrderItem;
+import com.assignment.products.entity.Product;
+import com.assignment.products.entity.User;
+import com.assignment.products.exception.NotStockAvailableException;
+import com.assignment.products.exception.ProductNotFoundException;
+import com.assignment.products.inventory.StockLedger;
+import com.assignment.products.mapper.OrderMapper;
+import com.assignment.products.model.OrderRequestDTO;
+import com.assignment.products.model.OrderResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional group commit for order placement. Callers price their order on their own thread and hand it to a
+ * single writer thread, which collects the orders arriving within a short window (or up to a maximum batch)
+ * and writes them in one transaction: the stock rows of all products in the batch are locked once in id
+ * order, each order is checked against the stock left by the orders before it, and the accepted orders,
+ * their items and the stock decrements are written with JDBC batches. One commit, and on PostgreSQL one WAL
+ * flush, is then shared by the whole batch.
+ * <p>
+ * Every caller still gets its own result. An order for a missing product or with too little stock is
+ * rejected on its own without affecting the rest of the batch. If the shared transaction fails before it
+ * commits, each order of the batch is placed again in its own transaction, so one bad order cannot fail the
+ * others. If the commit itself fails the orders may have been written, so the callers get the error instead
+ * of a second attempt that could place their orders twice.
+ * <p>
+ * Orders for products managed by the {@link StockLedger}, orders placed inside an existing transaction and
+ * orders that find the queue full are placed directly through {@link OrderService}.
+ */
+@Component
+@Slf4j
+public class OrderGroupCommitWriter {
+
+    private static final String LOCK_STOCK_SQL = "SELECT id, quantity FROM products "
+            + "WHERE id IN (:ids) AND is_deleted = false ORDER BY id FOR UPDATE";
+
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders (user_id, total_amount) VALUES (:userId, :totalAmount)";
+
+    private static final String INSERT_ORDER_ITEM_SQL = "INSERT INTO order_items "
+            + "(order_id, product_id, quantity, unit_price, discount_applied, total_price, stock_pending) "
+            + "VALUES (?, ?, ?, ?, ?, ?, false)";
+
+    private static final String DECREMENT_SQL = "UPDATE products SET quantity = quantity - ?, "
+            + "last_updated_time = CURRENT_TIMESTAMP, change_version = nextval('product_change_seq') WHERE id = ?";
+
+    private final OrderService orderService;
+
+    private final ProductsService productsService;
+
+    private final StockLedger stockLedger;
+
+    private final OrderMapper orderMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer commitTimer;
+
+    private final Counter overflowOrders;
+
+    @Value("${spring.application.order.group-commit.enabled:false}")
+    boolean enabled;
+
+    @Value("${spring.application.order.group-commit.window:2ms}")
+    Duration window;
+
+    @Value("${spring.application.order.group-commit.max-batch:64}")
+    int maxBatch;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public OrderGroupCommitWriter(OrderService orderService, ProductsService productsService, StockLedger stockLedger,
+                                  OrderMapper orderMapper, JdbcTemplate jdbcTemplate,
+                                  NamedParameterJdbcTemplate namedParameterJdbcTemplate, TransactionTemplate transactionTemplate,
+                                  @Value("${spring.application.order.group-commit.queue-capacity:1000}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.productsService = productsService;
+        this.stockLedger = stockLedger;
+        this.orderMapper = orderMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSizes = meterRegistry.summary("orders.group-commit.batch-size");
+        this.commitTimer = meterRegistry.timer("orders.group-commit.commit");
+        this.overflowOrders = meterRegistry.counter("orders.group-commit.overflow");
+        meterRegistry.gauge("orders.group-commit.queued", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("order-group-commit").daemon().start(this::drain);
+        log.info("Order group commit enabled with a window of {} and at most {} orders per batch", window, maxBatch);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join();
+        // Orders still queued at shutdown are placed one by one rather than dropped
+        PendingOrder left;
+        while ((left = queue.poll()) != null) {
+            placeAlone(left);
+        }
+    }
+
+    public OrderResponseDTO placeOrder(User user, OrderRequestDTO orderRequestDTO) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return orderService.placeOrder(user, orderRequestDTO);
+        }
+        Map<Long, Integer> quantities = OrderService.mergeQuantities(orderRequestDTO);
+        if (quantities.keySet().stream().anyMatch(stockLedger::manages)) {
+            return orderService.placeOrder(user, orderRequestDTO);
+        }
+        Map<Long, Product> products = productsService.findProductsByIds(quantities.keySet());
+        PendingOrder pending = new PendingOrder(user, orderRequestDTO, orderService.priceOrder(user, quantities, products));
+        if (!queue.offer(pending)) {
+            overflowOrders.increment();
+            return orderService.placeOrder(user, orderRequestDTO);
+        }
+        // Offered while the writer was stopping: unless it took the order, nobody else will
+        if (!running && queue.remove(pending)) {
+            return orderService.placeOrder(user, orderRequestDTO);
+        }
+        try {
+            return pending.getResponse().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + window.toNanos();
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        AtomicBoolean written = new AtomicBoolean();
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                writeBatch(batch);
+                written.set(true);
+            }));
+        } catch (RuntimeException e) {
+            if (!written.get() || e instanceof UnexpectedRollbackException) {
+                log.warn("Group commit of {} orders rolled back, placing them one by one", batch.size(), e);
+                batch.forEach(this::placeAlone);
+            } else {
+                log.error("Commit of {} grouped orders failed, whether they were written is unknown", batch.size(), e);
+                batch.forEach(pending -> pending.getResponse().completeExceptionally(e));
+            }
+            return;
+        }
+        for (PendingOrder pending : batch) {
+            if (pending.getRejection() == null) {
+                pending.getResponse().complete(orderMapper.convertToOrderResponseDTO(pending.getOrder()));
+            } else {
+                pending.getResponse().completeExceptionally(pending.getRejection());
+            }
+        }
+    }
+
+    private void placeAlone(PendingOrder pending) {
+        try {
+            pending.getResponse().complete(orderService.placeOrder(pending.getUser(), pending.getRequest()));
+        } catch (RuntimeException e) {
+            pending.getResponse().completeExceptionally(e);
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        TreeSet<Long> productIds = new TreeSet<>();
+        batch.forEach(pending -> pending.getOrder().getItems().forEach(item -> productIds.add(item.getProduct().getId())));
+        Map<Long, Integer> stock = new HashMap<>();
+        namedParameterJdbcTemplate.query(LOCK_STOCK_SQL, Map.of("ids", productIds),
+                rs -> { stock.put(rs.getLong("id"), rs.getInt("quantity")); });
+
+        List<PendingOrder> accepted = new ArrayList<>(batch.size());
+        Map<Long, Integer> taken = new HashMap<>();
+        for (PendingOrder pending : batch) {
+            RuntimeException rejection = checkStock(pending.getOrder(), stock);
+            if (rejection != null) {
+                pending.setRejection(rejection);
+                continue;
+            }
+            for (OrderItem item : pending.getOrder().getItems()) {
+                stock.merge(item.getProduct().getId(), -item.getQuantity(), Integer::sum);
+                taken.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+            accepted.add(pending);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] orderRows = accepted.stream()
+                .map(pending -> new MapSqlParameterSource()
+                        .addValue("userId", pending.getUser().getId())
+                        .addValue("totalAmount", pending.getOrder().getTotalPrice()))
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder keys = new GeneratedKeyHolder();
+        namedParameterJdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orderRows, keys, new String[]{"id"});
+
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            Order order = accepted.get(i).getOrder();
+            order.setId(((Number) keys.getKeyList().get(i).get("id")).longValue());
+            for (OrderItem item : order.getItems()) {
+                itemRows.add(new Object[]{order.getId(), item.getProduct().getId(), item.getQuantity(),
+                        item.getUnitPrice(), item.getDiscountApplied(), item.getTotalPrice()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM_SQL, itemRows);
+        jdbcTemplate.batchUpdate(DECREMENT_SQL, new TreeSet<>(taken.keySet()).stream()
+                .map(productId -> new Object[]{taken.get(productId), productId}).toList());
+        productsService.publishStockTaken(taken);
+    }
+
+    private static RuntimeException checkStock(Order order, Map<Long, Integer> stock) {
+        List<Long> missing = order.getItems().stream().map(item -> item.getProduct().getId())
+                .filter(productId -> !stock.containsKey(productId)).toList();
+        if (!missing.isEmpty()) {
+            return new ProductNotFoundException(missing);
+        }
+        for (OrderItem item : order.getItems()) {
+            if (stock.get(item.getProduct().getId()) < item.getQuantity()) {
+                log.error("Order Creation failed. Product {} (ID: {}) has insufficient stock. Requested: {}"
+                        , item.getProduct().getName(), item.getProduct().getId(), item.getQuantity());
+                return new NotStockAvailableException("Insufficient Stock for the product: " + item.getProduct().getName());
+            }
+        }
+        return null;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class PendingOrder {
+
+        private final User user;
+
+        private final OrderRequestDTO request;
+
+        private final Order order;
+
+        private final CompletableFuture<OrderResponseDTO> response = new CompletableFuture<>();
+
+        /**
+         * Why the order was not accepted by the batch, or null when it was written.
+         */
+        @Setter
+        private RuntimeException rejection;
+    }
+}
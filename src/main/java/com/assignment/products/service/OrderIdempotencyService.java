@@ -0,0 +1,194 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.OrderIdempotencyKey;
+import com.assignment.products.entity.User;
+import com.assignment.products.exception.IdempotencyKeyReusedException;
+import com.assignment.products.model.OrderRequestDTO;
+import com.assignment.products.model.OrderResponseDTO;
+import com.assignment.products.repository.OrderIdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Places orders at most once per {@code Idempotency-Key} and user. The key is stored in the same transaction
+ * as the order together with the encoded response, so a retry is answered from the stored response without
+ * pricing or writing anything. Retries that arrive while the first request is still running wait for it:
+ * in this instance through an in-flight map, across instances through the primary key of the stored key.
+ * <p>
+ * Reusing a key with a different request is rejected. Keys are purged after the retention window, after
+ * which the same key places a new order.
+ */
+@Service
+@Slf4j
+public class OrderIdempotencyService {
+
+    private final OrderService orderService;
+
+    private final OrderGroupCommitWriter groupCommitWriter;
+
+    private final OrderIdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectMapper responseMapper;
+
+    private final ConcurrentMap<OrderIdempotencyKey.Id, InFlightOrder> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter executedOrders;
+
+    private final Counter replayedOrders;
+
+    private final Counter coalescedOrders;
+
+    @Value("${spring.application.idempotency.retention:24h}")
+    Duration retention;
+
+    public OrderIdempotencyService(OrderService orderService, OrderGroupCommitWriter groupCommitWriter,
+                                   OrderIdempotencyKeyRepository idempotencyKeyRepository,
+                                   TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                   Jackson2ObjectMapperBuilder objectMapperBuilder, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.groupCommitWriter = groupCommitWriter;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.responseMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.executedOrders = meterRegistry.counter("orders.idempotency", "outcome", "executed");
+        this.replayedOrders = meterRegistry.counter("orders.idempotency", "outcome", "replayed");
+        this.coalescedOrders = meterRegistry.counter("orders.idempotency", "outcome", "coalesced");
+    }
+
+    public OrderResponseDTO placeOrder(User user, String idempotencyKey, OrderRequestDTO orderRequestDTO) {
+        if (idempotencyKey == null) {
+            return groupCommitWriter.placeOrder(user, orderRequestDTO);
+        }
+        OrderIdempotencyKey.Id key = new OrderIdempotencyKey.Id(user.getId(), idempotencyKey);
+        String requestHash = hash(orderRequestDTO);
+
+        InFlightOrder order = new InFlightOrder(requestHash, new CompletableFuture<>());
+        InFlightOrder running = inFlight.putIfAbsent(key, order);
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            coalescedOrders.increment();
+            return await(running.response());
+        }
+        try {
+            OrderResponseDTO response = placeOnce(user, key, requestHash, orderRequestDTO);
+            order.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            order.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, order);
+        }
+    }
+
+    @Scheduled(cron = "${spring.application.idempotency.purge-cron:0 15 * * * *}")
+    public void purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteCreatedBefore(cutoff));
+        log.info("Purged {} order idempotency keys created before {}", purged, cutoff);
+    }
+
+    private OrderResponseDTO placeOnce(User user, OrderIdempotencyKey.Id key, String requestHash, OrderRequestDTO orderRequestDTO) {
+        Optional<OrderResponseDTO> stored = findStoredResponse(key, requestHash);
+        if (stored.isPresent()) {
+            replayedOrders.increment();
+            return stored.get();
+        }
+        try {
+            OrderResponseDTO response = transactionTemplate.execute(status -> {
+                idempotencyKeyRepository.claim(key.getUserId(), key.getIdempotencyKey(), requestHash, LocalDateTime.now());
+                OrderResponseDTO placed = orderService.placeOrder(user, orderRequestDTO);
+                idempotencyKeyRepository.storeResponse(key, encode(placed));
+                return placed;
+            });
+            executedOrders.increment();
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            // Another instance placed the order for this key first and has committed it
+            OrderResponseDTO response = findStoredResponse(key, requestHash).orElseThrow(() -> e);
+            replayedOrders.increment();
+            return response;
+        }
+    }
+
+    private Optional<OrderResponseDTO> findStoredResponse(OrderIdempotencyKey.Id key, String requestHash) {
+        return idempotencyKeyRepository.findById(key).map(stored -> {
+            checkSameRequest(stored.getRequestHash(), requestHash);
+            return decode(stored.getResponse());
+        });
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different order");
+        }
+    }
+
+    private static OrderResponseDTO await(CompletableFuture<OrderResponseDTO> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(OrderRequestDTO orderRequestDTO) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(orderRequestDTO)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] encode(OrderResponseDTO response) {
+        try {
+            return responseMapper.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private OrderResponseDTO decode(byte[] response) {
+        try {
+            return responseMapper.readValue(response, OrderResponseDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record InFlightOrder(String requestHash, CompletableFuture<OrderResponseDTO> response) {
+    }
+}
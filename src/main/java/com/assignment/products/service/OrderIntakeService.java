@@ -0,0 +1,89 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.OrderIntake;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.OrderIntakeStatus;
+import com.assignment.products.exception.OrderIntakeFullException;
+import com.assignment.products.exception.OrderIntakeNotFoundException;
+import com.assignment.products.model.OrderIntakeDTO;
+import com.assignment.products.model.OrderRequestDTO;
+import com.assignment.products.model.OrderResponseDTO;
+import com.assignment.products.repository.OrderIntakeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Accepts orders for asynchronous placement: the validated request is stored as a pending row of the
+ * {@code order_intake} table and placed later by {@link OrderIntakeWorker}. The queue is bounded by the
+ * configured capacity of pending orders; the check is a count, so concurrent requests can overshoot it slightly.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderIntakeService {
+
+    private final OrderIntakeRepository orderIntakeRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${spring.application.order-intake.capacity:10000}")
+    long capacity;
+
+    public OrderIntakeDTO enqueue(User user, OrderRequestDTO orderRequestDTO) {
+        if (orderIntakeRepository.countByStatus(OrderIntakeStatus.PENDING) >= capacity) {
+            throw new OrderIntakeFullException("Too many orders waiting to be placed, retry later");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        OrderIntake intake = orderIntakeRepository.save(OrderIntake.builder()
+                .trackingId(UUID.randomUUID().toString())
+                .userId(user.getId())
+                .request(write(orderRequestDTO))
+                .status(OrderIntakeStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        log.info("Order accepted for User: {}, Tracking Id: {}", user.getId(), intake.getTrackingId());
+        return convertToDTO(intake);
+    }
+
+    public OrderIntakeDTO findStatus(User user, String trackingId) {
+        return orderIntakeRepository.findByTrackingIdAndUserId(trackingId, user.getId())
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new OrderIntakeNotFoundException("No order with tracking id: " + trackingId));
+    }
+
+    private OrderIntakeDTO convertToDTO(OrderIntake intake) {
+        return OrderIntakeDTO.builder()
+                .trackingId(intake.getTrackingId())
+                .status(intake.getStatus())
+                .order(intake.getResponse() == null ? null : read(intake.getResponse()))
+                .error(intake.getError())
+                .createTime(intake.getCreatedAt())
+                .lastUpdateTime(intake.getUpdatedAt())
+                .build();
+    }
+
+    private String write(OrderRequestDTO orderRequestDTO) {
+        try {
+            return objectMapper.writeValueAsString(orderRequestDTO);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private OrderResponseDTO read(String response) {
+        try {
+            return objectMapper.readValue(response, OrderResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.OrderIntake;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.OrderIntakeStatus;
+import com.assignment.products.model.OrderRequestDTO;
+import com.assignment.products.model.OrderResponseDTO;
+import com.assignment.products.repository.OrderIntakeRepository;
+import com.assignment.products.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the {@code order_intake} queue. Each poll claims a batch of pending orders in arrival order and
+ * places them on virtual threads, at most {@code concurrency} at a time so the workers never ask for more
+ * database connections than the pool can spare. An order and its COMPLETED status commit in one transaction,
+ * so a crash can only leave orders PROCESSING without a placed order; those are queued again once they have
+ * been PROCESSING for longer than the processing timeout.
+ * <p>
+ * Each claim stamps its rows with a new claim token, and the outcome is recorded only while the row is still
+ * PROCESSING under that token. A worker that overran the timeout and lost its order to a new claim finds no
+ * row to complete, so its transaction rolls back and the order is placed once.
+ * <p>
+ * Orders that cannot be placed (missing products, insufficient stock) are marked FAILED with the reason.
+ * Database and transaction errors leave the order PROCESSING so it is retried after the timeout, until it
+ * has been claimed {@code max-attempts} times; it is then marked FAILED as well. COMPLETED and FAILED rows
+ * are purged after the retention window.
+ * <p>
+ * Polling runs on a thread of its own, since a poll drains the queue batch by batch and would otherwise hold
+ * up the other scheduled jobs.
+ */
+@Component
+@Slf4j
+public class OrderIntakeWorker implements SmartInitializingSingleton {
+
+    private static final String FAIL_STALE_SQL = "UPDATE order_intake SET status = 'FAILED', error = ?, claim_token = NULL, "
+            + "updated_time = ? WHERE status = 'PROCESSING' AND updated_time < ? AND attempts >= ?";
+
+    private static final String REQUEUE_STALE_SQL = "UPDATE order_intake SET status = 'PENDING', claim_token = NULL, "
+            + "updated_time = ? WHERE status = 'PROCESSING' AND updated_time < ?";
+
+    private static final String SELECT_PENDING_SQL = "SELECT id FROM order_intake WHERE status = 'PENDING' "
+            + "ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String CLAIM_SQL = "UPDATE order_intake SET status = 'PROCESSING', claim_token = :token, "
+            + "attempts = attempts + 1, updated_time = :now WHERE id IN (:ids)";
+
+    private static final String COMPLETE_SQL = "UPDATE order_intake SET status = 'COMPLETED', response = ?, updated_time = ? "
+            + "WHERE id = ? AND status = 'PROCESSING' AND claim_token = ?";
+
+    private static final String FAIL_SQL = "UPDATE order_intake SET status = 'FAILED', error = ?, updated_time = ? "
+            + "WHERE id = ? AND status = 'PROCESSING' AND claim_token = ?";
+
+    private static final String QUEUE_STATE_SQL = "SELECT COUNT(*), MIN(created_time) FROM order_intake WHERE status = 'PENDING'";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OrderIntakeRepository orderIntakeRepository;
+
+    private final UserRepository userRepository;
+
+    private final OrderService orderService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong depth = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final Timer queueWait;
+
+    private final Counter completedOrders;
+
+    private final Counter failedOrders;
+
+    @Value("${spring.application.order-intake.enabled:true}")
+    boolean enabled;
+
+    @Value("${spring.application.order-intake.batch-size:50}")
+    int batchSize;
+
+    @Value("${spring.application.order-intake.poll-interval:100ms}")
+    Duration pollInterval;
+
+    @Value("${spring.application.order-intake.processing-timeout:5m}")
+    Duration processingTimeout;
+
+    @Value("${spring.application.order-intake.max-attempts:5}")
+    int maxAttempts;
+
+    @Value("${spring.application.order-intake.retention:24h}")
+    Duration retention;
+
+    private final Semaphore permits;
+
+    private ScheduledExecutorService poller;
+
+    public OrderIntakeWorker(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             TransactionTemplate transactionTemplate, OrderIntakeRepository orderIntakeRepository,
+                             UserRepository userRepository, OrderService orderService, ObjectMapper objectMapper,
+                             @Value("${spring.application.order-intake.concurrency:8}") int concurrency,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.orderIntakeRepository = orderIntakeRepository;
+        this.userRepository = userRepository;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(concurrency);
+        this.queueWait = meterRegistry.timer("orders.intake.wait");
+        this.completedOrders = meterRegistry.counter("orders.intake.processed", "outcome", "completed");
+        this.failedOrders = meterRegistry.counter("orders.intake.processed", "outcome", "failed");
+        meterRegistry.gauge("orders.intake.depth", depth);
+        meterRegistry.gauge("orders.intake.lag.seconds", lagMillis, lag -> lag.get() / 1000.0);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("order-intake").daemon().factory());
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                // Thrown out of the task it would cancel the schedule
+                log.error("Order intake poll failed, it is retried in {}", pollInterval, e);
+            }
+        }, pollInterval.toNanos(), pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        requeueStale();
+        Claim claim;
+        do {
+            refreshQueueState();
+            claim = transactionTemplate.execute(status -> claimBatch());
+            if (claim != null && !claim.intakeIds().isEmpty()) {
+                processBatch(claim);
+            }
+        } while (claim != null && claim.intakeIds().size() == batchSize);
+    }
+
+    /**
+     * Places one claimed order and records its outcome, provided the order is still held by {@code claimToken}.
+     */
+    public void process(long intakeId, String claimToken) {
+        OrderIntake intake = orderIntakeRepository.findById(intakeId).orElse(null);
+        if (intake == null || !claimToken.equals(intake.getClaimToken())) {
+            return;
+        }
+        queueWait.record(Duration.between(intake.getCreatedAt(), LocalDateTime.now()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                User user = userRepository.findById(intake.getUserId())
+                        .orElseThrow(() -> new IllegalStateException("User no longer exists: " + intake.getUserId()));
+                OrderResponseDTO response = orderService.placeOrder(user, read(intake.getRequest()));
+                if (jdbcTemplate.update(COMPLETE_SQL, write(response), Timestamp.valueOf(LocalDateTime.now()), intakeId, claimToken) == 0) {
+                    throw new ClaimLostException();
+                }
+            });
+            completedOrders.increment();
+        } catch (ClaimLostException e) {
+            log.warn("Order {} was claimed again after the processing timeout, this attempt was rolled back", intake.getTrackingId());
+        } catch (DataAccessException | TransactionException e) {
+            if (intake.getAttempts() < maxAttempts) {
+                log.error("Placing order {} failed, it is retried after {}", intake.getTrackingId(), processingTimeout, e);
+            } else {
+                log.error("Placing order {} failed on attempt {}, giving up", intake.getTrackingId(), intake.getAttempts(), e);
+                fail(intake, claimToken, "Gave up after " + intake.getAttempts() + " attempts: " + reason(e));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order {} could not be placed: {}", intake.getTrackingId(), e.getMessage());
+            fail(intake, claimToken, reason(e));
+        }
+    }
+
+    @Scheduled(cron = "${spring.application.order-intake.purge-cron:0 45 * * * *}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> orderIntakeRepository.deleteUpdatedBefore(
+                List.of(OrderIntakeStatus.COMPLETED, OrderIntakeStatus.FAILED), cutoff));
+        log.info("Purged {} finished order intake rows last updated before {}", purged, cutoff);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (poller != null) {
+            poller.shutdown();
+        }
+        executor.close();
+    }
+
+    /**
+     * Queues orders left PROCESSING for longer than the processing timeout again, or marks them FAILED once
+     * they have used up their attempts.
+     */
+    void requeueStale() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp staleBefore = Timestamp.valueOf(now.minus(processingTimeout));
+        int failed = jdbcTemplate.update(FAIL_STALE_SQL, "Gave up after " + maxAttempts + " attempts",
+                Timestamp.valueOf(now), staleBefore, maxAttempts);
+        if (failed > 0) {
+            log.error("Marked {} orders FAILED after {} attempts", failed, maxAttempts);
+            failedOrders.increment(failed);
+        }
+        int requeued = jdbcTemplate.update(REQUEUE_STALE_SQL, Timestamp.valueOf(now), staleBefore);
+        if (requeued > 0) {
+            log.warn("Queued {} orders again after they were processing for longer than {}", requeued, processingTimeout);
+        }
+    }
+
+    private void fail(OrderIntake intake, String claimToken, String error) {
+        if (jdbcTemplate.update(FAIL_SQL, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                Timestamp.valueOf(LocalDateTime.now()), intake.getId(), claimToken) > 0) {
+            failedOrders.increment();
+        }
+    }
+
+    private static String reason(RuntimeException e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
+    private Claim claimBatch() {
+        Claim claim = new Claim(UUID.randomUUID().toString(), jdbcTemplate.queryForList(SELECT_PENDING_SQL, Long.class, batchSize));
+        if (!claim.intakeIds().isEmpty()) {
+            namedParameterJdbcTemplate.update(CLAIM_SQL,
+                    Map.of("ids", claim.intakeIds(), "token", claim.token(), "now", Timestamp.valueOf(LocalDateTime.now())));
+        }
+        return claim;
+    }
+
+    private void processBatch(Claim claim) {
+        List<Future<?>> running = new ArrayList<>(claim.intakeIds().size());
+        for (Long intakeId : claim.intakeIds()) {
+            permits.acquireUninterruptibly();
+            running.add(executor.submit(() -> {
+                try {
+                    process(intakeId, claim.token());
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        for (Future<?> order : running) {
+            try {
+                order.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Order intake worker failed", e.getCause());
+            }
+        }
+    }
+
+    private void refreshQueueState() {
+        jdbcTemplate.query(QUEUE_STATE_SQL, rs -> {
+            depth.set(rs.getLong(1));
+            Timestamp oldest = rs.getTimestamp(2);
+            lagMillis.set(oldest == null ? 0 : Duration.between(oldest.toLocalDateTime(), LocalDateTime.now()).toMillis());
+        });
+    }
+
+    private OrderRequestDTO read(String request) {
+        try {
+            return objectMapper.readValue(request, OrderRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String write(OrderResponseDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Claim(String token, List<Long> intakeIds) {
+    }
+
+    /**
+     * Thrown inside the order transaction to roll it back when the order is no longer held by this claim.
+     */
+    private static final class ClaimLostException extends RuntimeException {
+
+        ClaimLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
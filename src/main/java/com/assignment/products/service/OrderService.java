@@ -6,6 +6,7 @@ import com.assignment.products.entity.OrderItem;
 import com.assignment.products.entity.Product;
 import com.assignment.products.entity.User;
 import com.assignment.products.exception.NotStockAvailableException;
+import com.assignment.products.inventory.StockLedger;
 import com.assignment.products.mapper.OrderMapper;
 import com.assignment.products.model.OrderRequestDTO;
 import com.assignment.products.model.OrderRequestDTO.OrderItemRequestDTO;
@@ -19,7 +20,10 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +34,8 @@ public class OrderService {
 
     private final ProductsService productsService;
 
+    private final StockLedger stockLedger;
+
     private final OrderMapper orderMapper;
 
     private final List<DiscountStrategy> discountStrategies;
@@ -38,26 +44,66 @@ public class OrderService {
     public OrderResponseDTO placeOrder(User user, OrderRequestDTO orderRequestDTO){
 
         log.info("Starting Place order for User: {}, Items: {}", user.getId(), orderRequestDTO.getOrderItems().size());
+        Map<Long, Integer> quantities = mergeQuantities(orderRequestDTO);
+        Map<Long, Product> products = productsService.findProductsByIds(quantities.keySet());
+        Order order = priceOrder(user, quantities, products);
+
+        // Stock is taken by a guarded update that fails when too little is left. Taking it in product id
+        // order makes concurrent orders for the same products lock their rows in the same order
+        List<OrderItem> byProductId = new ArrayList<>(order.getItems());
+        byProductId.sort(Comparator.comparingLong(orderItem -> orderItem.getProduct().getId()));
+        for (OrderItem orderItem : byProductId) {
+            Product product = orderItem.getProduct();
+            try {
+                if (stockLedger.reserve(product, orderItem.getQuantity())) {
+                    orderItem.setStockPending(true);
+                    orderItem.setStockLedger(stockLedger.getOwner());
+                } else {
+                    productsService.reduceProductStock(product, orderItem.getQuantity());
+                }
+            } catch (NotStockAvailableException e) {
+                log.error("Order Creation failed. Product {} (ID: {}) has insufficient stock. Requested: {}"
+                        , product.getName(), product.getId(), orderItem.getQuantity());
+                throw e;
+            }
+        }
+
+        Order savedOrder = orderRepository.save(order);
+        log.info("Order placed successfully. Order Id {}, Total {} ", savedOrder.getId(), savedOrder.getTotalPrice());
+        return orderMapper.convertToOrderResponseDTO(savedOrder);
+    }
+
+    /**
+     * Lines for the same product are merged so each product is priced and reserved once.
+     */
+    static Map<Long, Integer> mergeQuantities(OrderRequestDTO orderRequestDTO) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequestDTO itemDto : orderRequestDTO.getOrderItems()) {
+            quantities.merge(itemDto.getProductId(), itemDto.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Builds the unsaved order with its items priced and discounted. Stock is not touched.
+     */
+    Order priceOrder(User user, Map<Long, Integer> quantities, Map<Long, Product> products) {
         Order order = new Order();
 
         List<OrderItem> orderItems = new ArrayList<>();
         List<PrepareOrderItem> prepareOrderItems = new ArrayList<>();
         BigDecimal subTotal = BigDecimal.ZERO;
 
-        for (OrderItemRequestDTO itemDto : orderRequestDTO.getOrderItems()) {
-            Product product = productsService.findProductById(itemDto.getProductId());
-            if(product.getQuantity() < itemDto.getQuantity()){
-                log.error("Order Creation failed. Product {} (ID: {}) has insufficient stock. Requested: {}, Available: {}"
-                        ,product.getName(), product.getId(), itemDto.getQuantity(), product.getQuantity());
-                throw new NotStockAvailableException("Insufficient Stock for the product: "+ product.getName());
-            }
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Product product = products.get(line.getKey());
+            int quantity = line.getValue();
 
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
+            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
             subTotal = subTotal.add(itemTotal);
 
             PrepareOrderItem prepareOrderItem = new PrepareOrderItem();
             prepareOrderItem.setProductId(product.getId());
-            prepareOrderItem.setQuantity(itemDto.getQuantity());
+            prepareOrderItem.setQuantity(quantity);
             prepareOrderItem.setUnitPrice(product.getPrice());
             prepareOrderItem.setTotalPrice(itemTotal);
             prepareOrderItem.setProduct(product);
@@ -71,9 +117,9 @@ public class OrderService {
                     strategy.calculateDiscount(user, subTotal)
             );
         }
+
         BigDecimal totalOrderPrice = BigDecimal.ZERO;
         for(PrepareOrderItem preparedItem: prepareOrderItems){
-            productsService.reduceProductStock(preparedItem.getProduct(), preparedItem.getQuantity());
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(preparedItem.getProduct());
             orderItem.setQuantity(preparedItem.getQuantity());
@@ -93,9 +139,6 @@ public class OrderService {
         order.setItems(orderItems);
         order.setUser(user);
         order.setTotalPrice(totalOrderPrice);
-
-        Order savedOrder = orderRepository.save(order);
-        log.info("Order placed successfully. Order Id {}, Total {} ", savedOrder.getId(), savedOrder.getTotalPrice());
-        return orderMapper.convertToOrderResponseDTO(savedOrder);
+        return order;
     }
 }
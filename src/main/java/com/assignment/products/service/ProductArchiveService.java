@@ -0,0 +1,132 @@
+package com.assignment.products.service;
+
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.event.CatalogBulkChangedEvent;
+import com.assignment.products.exception.InvalidCursorException;
+import com.assignment.products.mapper.ProductMapper;
+import com.assignment.products.model.ProductCursor;
+import com.assignment.products.model.ProductsPageDTO;
+import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.repository.ProductArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves soft-deleted products out of the {@code products} table once they have been deleted for longer
+ * than the configured age, one chunk per transaction. Ordered products are archived too: their order items
+ * are pointed at the archived row, which keeps the id, name and price. Only products with order items whose
+ * stock the ledger has not yet applied stay until the next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductArchiveService {
+
+    private static final String SELECT_CANDIDATES_SQL = "SELECT p.id FROM products p WHERE p.is_deleted = true "
+            + "AND p.deleted_time <= ? "
+            + "AND NOT EXISTS (SELECT 1 FROM order_items oi WHERE oi.product_id = p.id AND oi.stock_pending = true) "
+            + "ORDER BY p.id LIMIT ?";
+
+    private static final String COPY_SQL = "INSERT INTO products_archive (id, name, description, price, quantity, "
+            + "created_time, last_updated_time, deleted_time, archived_time, change_version) "
+            + "SELECT id, name, description, price, quantity, created_time, last_updated_time, deleted_time, "
+            + ":archivedAt, nextval('product_change_seq') FROM products WHERE id IN (:ids)";
+
+    private static final String MOVE_ORDER_ITEMS_SQL = "UPDATE order_items SET archived_product_id = product_id, "
+            + "product_id = NULL WHERE product_id IN (:ids)";
+
+    private static final String DELETE_SQL = "DELETE FROM products WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ProductArchiveRepository productArchiveRepository;
+
+    private final ProductMapper productMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${spring.application.archive.min-age:30d}")
+    Duration minAge;
+
+    @Value("${spring.application.archive.batch-size:500}")
+    int batchSize;
+
+    @Scheduled(cron = "${spring.application.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        archiveDeletedProducts();
+    }
+
+    /**
+     * @return the number of products moved to the archive
+     */
+    public int archiveDeletedProducts() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(minAge);
+        int archived = 0;
+        try {
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> archiveChunk(cutoff, now));
+                archived += moved == null ? 0 : moved;
+                if (moved == null || moved < batchSize) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            // Retried on the next run
+            log.warn("Product archival stopped after {} products", archived, e);
+        }
+        if (archived > 0) {
+            eventPublisher.publishEvent(new CatalogBulkChangedEvent(archived));
+        }
+        log.info("Archived {} soft-deleted products deleted before {}", archived, cutoff);
+        return archived;
+    }
+
+    public ProductsPageDTO findArchivedProducts(ProductCursor cursor, int limit) {
+        if (cursor != null && cursor.getSort() != ProductSort.ID) {
+            throw new InvalidCursorException("Archived products are paged by id only");
+        }
+        List<ProductsResponseDTO> products = productArchiveRepository
+                .findByIdGreaterThanOrderByIdAsc(cursor == null ? 0 : cursor.getId(), Limit.of(limit + 1))
+                .stream().map(productMapper::convertArchivedToDTO).toList();
+
+        String nextCursor = null;
+        if (products.size() > limit) {
+            products = products.subList(0, limit);
+            nextCursor = ProductCursor.after(ProductSort.ID, products.get(limit - 1), 0).encode();
+        }
+        return new ProductsPageDTO(products, nextCursor);
+    }
+
+    private int archiveChunk(LocalDateTime cutoff, LocalDateTime archivedAt) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_CANDIDATES_SQL, Long.class, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", archivedAt);
+        namedParameterJdbcTemplate.update(COPY_SQL, params);
+        namedParameterJdbcTemplate.update(MOVE_ORDER_ITEMS_SQL, params);
+        namedParameterJdbcTemplate.update(DELETE_SQL, params);
+        return ids.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.enums.CatalogFormat;
+import com.assignment.products.mapper.ProductMapper;
+import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.repository.ProductSpecification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole visible catalog to an output stream. Rows are read through a server-side cursor
+ * with a bounded fetch size and the persistence context is cleared after every fetch, so memory use
+ * does not grow with the size of the catalog.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+    private static final String CSV_HEADER = "id,name,description,price,quantity,createTime,lastUpdateTime";
+
+    private final EntityManager entityManager;
+
+    private final ProductSpecification productSpecification;
+
+    private final ProductMapper productMapper;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${spring.application.export.fetch-size:500}")
+    int fetchSize;
+
+    @Transactional(readOnly = true)
+    public void exportProducts(CatalogFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == CatalogFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Product> products = streamVisibleProducts()) {
+            Iterator<Product> iterator = products.iterator();
+            int rows = 0;
+            while (iterator.hasNext()) {
+                ProductsResponseDTO product = productMapper.convertToDTO(iterator.next());
+                if (format == CatalogFormat.CSV) {
+                    writeCsv(writer, product);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(product));
+                    writer.write('\n');
+                }
+                if (++rows % fetchSize == 0) {
+                    // Rows already written are not needed again, drop them before the next fetch
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private Stream<Product> streamVisibleProducts() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        query.where(productSpecification.filterProducts(null, null, null, false, ProductsService.isRoleAdmin())
+                .toPredicate(root, query, cb));
+        query.orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private static void writeCsv(Writer writer, ProductsResponseDTO product) throws IOException {
+        writer.write(String.join(",",
+                String.valueOf(product.getId()),
+                csvField(product.getName()),
+                csvField(product.getDescription()),
+                product.getPrice() == null ? "" : product.getPrice().toPlainString(),
+                String.valueOf(product.getQuantity()),
+                Objects.toString(product.getCreateTime(), ""),
+                Objects.toString(product.getLastUpdateTime(), "")));
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
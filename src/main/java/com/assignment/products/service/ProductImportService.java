@@ -0,0 +1,276 @@
+package com.assignment.products.service;
+
+import com.assignment.products.enums.CatalogFormat;
+import com.assignment.products.event.CatalogBulkChangedEvent;
+import com.assignment.products.exception.InvalidImportException;
+import com.assignment.products.model.ProductImportErrorDTO;
+import com.assignment.products.model.ProductImportResultDTO;
+import com.assignment.products.model.ProductRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads large product feeds. The body is read one row at a time, each row is validated on its own,
+ * and valid rows are written with JDBC batch inserts, one transaction per batch. Invalid rows are
+ * skipped and reported with their row number instead of failing the whole feed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO products (name, description, price, quantity, is_deleted, "
+            + "created_time, last_updated_time, change_version) VALUES (?, ?, ?, ?, false, ?, ?, nextval('product_change_seq'))";
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "price", "quantity");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${spring.application.import.batch-size:1000}")
+    int batchSize;
+
+    @Value("${spring.application.import.max-reported-errors:1000}")
+    int maxReportedErrors;
+
+    public ProductImportResultDTO importProducts(CatalogFormat format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ImportRun run = new ImportRun();
+        long row = 0;
+
+        int[] columns = null;
+        if (format == CatalogFormat.CSV) {
+            List<String> header = readCsvRecord(reader);
+            if (header == null) {
+                return run.result();
+            }
+            columns = csvColumns(header);
+        }
+
+        while (true) {
+            ProductRequestDTO product;
+            if (format == CatalogFormat.CSV) {
+                List<String> record = readCsvRecord(reader);
+                if (record == null) {
+                    break;
+                }
+                row++;
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    product = fromCsv(record, columns);
+                } catch (IllegalArgumentException e) {
+                    run.reject(row, e.getMessage());
+                    continue;
+                }
+            } else {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                row++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    product = objectMapper.readValue(line, ProductRequestDTO.class);
+                } catch (JsonProcessingException e) {
+                    run.reject(row, "Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+            }
+
+            Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(product);
+            if (violations.isEmpty()) {
+                run.accept(row, product);
+            } else {
+                run.reject(row, violations.stream().map(ConstraintViolation::getMessage).sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+        }
+        run.flush();
+
+        if (run.imported > 0) {
+            eventPublisher.publishEvent(new CatalogBulkChangedEvent(run.imported));
+        }
+        log.info("Product import finished: {} imported, {} rejected", run.imported, run.rejected);
+        return run.result();
+    }
+
+    private static int[] csvColumns(List<String> header) {
+        List<String> names = header.stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new InvalidImportException("CSV header is missing column: " + CSV_COLUMNS.get(i));
+            }
+        }
+        return columns;
+    }
+
+    private static ProductRequestDTO fromCsv(List<String> record, int[] columns) {
+        String price = field(record, columns[2]);
+        String quantity = field(record, columns[3]);
+        try {
+            return ProductRequestDTO.builder()
+                    .name(field(record, columns[0]))
+                    .description(field(record, columns[1]))
+                    .price(price == null ? null : new BigDecimal(price.trim()))
+                    .quantity(quantity == null ? null : Integer.valueOf(quantity.trim()))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Price and quantity must be numbers");
+        }
+    }
+
+    private static String field(List<String> record, int column) {
+        if (column >= record.size() || record.get(column).isEmpty()) {
+            return null;
+        }
+        return record.get(column);
+    }
+
+    /**
+     * Reads one RFC 4180 record: fields separated by commas, optionally quoted, with doubled quotes
+     * inside quoted fields. Returns null at the end of the input.
+     */
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                int next = reader.read();
+                if (next == '"') {
+                    field.append('"');
+                } else {
+                    quoted = false;
+                    if (next != -1) {
+                        reader.reset();
+                    }
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Counters, reported errors and the batch of valid rows waiting to be written.
+     */
+    private class ImportRun {
+
+        private final List<Long> batchRows = new ArrayList<>();
+
+        private final List<ProductRequestDTO> batch = new ArrayList<>();
+
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+        private long imported;
+
+        private long rejected;
+
+        void accept(long row, ProductRequestDTO product) {
+            batchRows.add(row);
+            batch.add(product);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportErrorDTO(row, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, product) -> {
+                            ps.setString(1, product.getName());
+                            ps.setString(2, product.getDescription());
+                            ps.setBigDecimal(3, product.getPrice());
+                            ps.setInt(4, product.getQuantity());
+                            ps.setObject(5, now);
+                            ps.setObject(6, now);
+                        }));
+                imported += batch.size();
+            } catch (DataAccessException e) {
+                String message = "Rejected by database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                log.warn("Product import batch of rows {}-{} failed", batchRows.get(0), batchRows.get(batchRows.size() - 1), e);
+                batchRows.forEach(row -> reject(row, message));
+            }
+            batchRows.clear();
+            batch.clear();
+        }
+
+        ProductImportResultDTO result() {
+            return ProductImportResultDTO.builder()
+                    .imported(imported)
+                    .rejected(rejected)
+                    .errors(errors)
+                    .errorsTruncated(rejected > errors.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.assignment.products.service;
+
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.event.CatalogBulkChangedEvent;
+import com.assignment.products.event.ProductChangedEvent;
+import com.assignment.products.model.ProductsPageDTO;
+import com.assignment.products.model.ProductsResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of search result pages by normalized criteria. A committed product write evicts only
+ * the pages it can change: pages whose criteria matched the product before or after the write when the
+ * product entered, left or moved within the result, otherwise only the pages that contain the product.
+ * Entries also expire after a TTL, which bounds staleness from writes made by other instances.
+ */
+@Component
+@Slf4j
+public class ProductSearchCache {
+
+    private final Cache<Key, ProductsPageDTO> pages;
+
+    /**
+     * Incremented before every invalidation, so a page computed while a write was committing is not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductSearchCache(@Value("${spring.application.search-cache.ttl:30s}") Duration ttl,
+                              @Value("${spring.application.search-cache.max-size:10000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "products.search");
+        meterRegistry.gauge("products.search.cache.hit-ratio", pages, cache -> cache.stats().hitRate());
+    }
+
+    public ProductsPageDTO get(Key key) {
+        return pages.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a page computed from a read that started at {@code startGeneration}, unless an invalidation ran since.
+     */
+    public void put(Key key, ProductsPageDTO page, long startGeneration) {
+        pages.put(key, page);
+        if (generation.get() != startGeneration) {
+            pages.invalidate(key);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductsResponseDTO before = event.getBefore();
+        // A deleted product keeps its last state and moves to the admin (deleted) results
+        ProductsResponseDTO after = event.getAfter() != null ? event.getAfter() : before;
+        boolean deletedAfter = event.getAfter() == null || event.getAfter().isDeleted();
+        generation.incrementAndGet();
+        pages.asMap().entrySet().removeIf(entry ->
+                isAffected(entry.getKey(), entry.getValue(), event.getProductId(), before, after, deletedAfter));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogBulkChanged(CatalogBulkChangedEvent event) {
+        log.debug("Clearing search cache after bulk change of {} products", event.getChangedProducts());
+        generation.incrementAndGet();
+        pages.invalidateAll();
+    }
+
+    private static boolean isAffected(Key key, ProductsPageDTO page, long productId,
+                                      ProductsResponseDTO before, ProductsResponseDTO after, boolean deletedAfter) {
+        boolean matchedBefore = before != null && key.matches(before, before.isDeleted());
+        boolean matchesAfter = after != null && key.matches(after, deletedAfter);
+        if (!matchedBefore && !matchesAfter) {
+            return false;
+        }
+        if (matchedBefore != matchesAfter || !Objects.equals(before.getName(), after.getName())
+                || before.getPrice().compareTo(after.getPrice()) != 0) {
+            // The product entered or left the result, or may have moved to another page
+            return true;
+        }
+        return page.getProducts().stream().anyMatch(product -> product.getId() == productId);
+    }
+
+    /**
+     * Normalized search criteria. Prices are compared by value and admin visibility is part of the key
+     * because admins search deleted products.
+     */
+    public record Key(String name, BigDecimal minPrice, BigDecimal maxPrice, boolean available,
+                      boolean admin, ProductSort sort, String cursor, int limit) {
+
+        public Key {
+            minPrice = minPrice == null ? null : minPrice.stripTrailingZeros();
+            maxPrice = maxPrice == null ? null : maxPrice.stripTrailingZeros();
+        }
+
+        boolean matches(ProductsResponseDTO product, boolean deleted) {
+            if (deleted != admin) {
+                return false;
+            }
+            if (available && product.getQuantity() <= 0) {
+                return false;
+            }
+            if (minPrice != null && product.getPrice().compareTo(minPrice) < 0) {
+                return false;
+            }
+            if (maxPrice != null && product.getPrice().compareTo(maxPrice) > 0) {
+                return false;
+            }
+            if (!name.isEmpty()) {
+                String productName = product.getName() == null ? "" : product.getName().toLowerCase(Locale.ROOT);
+                for (String token : name.split(" ")) {
+                    if (!productName.contains(token)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.assignment.products.service;
+
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.model.ProductCursor;
+import com.assignment.products.model.ProductsPageDTO;
+import com.assignment.products.repository.ProductSpecification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Front for product searches. Results are served from {@link ProductSearchCache} when possible, and
+ * concurrent identical searches that miss the cache share one database query: the first request for a
+ * key runs the search, requests for the same key that arrive while it is running wait for it and get
+ * the same page.
+ * <p>
+ * Pages handed out this way are shared between requests and must not be modified.
+ */
+@Service
+public class ProductSearchService {
+
+    private final ProductsService productsService;
+
+    private final ProductSearchCache searchCache;
+
+    private final ConcurrentMap<ProductSearchCache.Key, CompletableFuture<ProductsPageDTO>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter executedSearches;
+
+    private final Counter coalescedSearches;
+
+    public ProductSearchService(ProductsService productsService, ProductSearchCache searchCache, MeterRegistry meterRegistry) {
+        this.productsService = productsService;
+        this.searchCache = searchCache;
+        this.executedSearches = meterRegistry.counter("products.search.requests", "outcome", "executed");
+        this.coalescedSearches = meterRegistry.counter("products.search.requests", "outcome", "coalesced");
+        meterRegistry.gauge("products.search.in-flight", inFlight, Map::size);
+    }
+
+    public ProductsPageDTO findByCriteria(String name, BigDecimal minPrice, BigDecimal maxPrice, boolean available,
+                                          ProductSort sort, ProductCursor cursor, int limit) {
+        String normalizedName = ProductSpecification.normalize(name);
+        ProductSearchCache.Key key = new ProductSearchCache.Key(normalizedName, minPrice, maxPrice, available,
+                ProductsService.isRoleAdmin(), sort, cursor == null ? null : cursor.encode(), limit);
+        ProductsPageDTO cached = searchCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<ProductsPageDTO> search = new CompletableFuture<>();
+        CompletableFuture<ProductsPageDTO> running = inFlight.putIfAbsent(key, search);
+        if (running != null) {
+            coalescedSearches.increment();
+            return await(running);
+        }
+
+        executedSearches.increment();
+        long generation = searchCache.generation();
+        try {
+            ProductsPageDTO page = productsService.findByCriteria(normalizedName.isEmpty() ? null : normalizedName,
+                    minPrice, maxPrice, available, sort, cursor, limit);
+            searchCache.put(key, page, generation);
+            search.complete(page);
+            return page;
+        } catch (RuntimeException e) {
+            search.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, search);
+        }
+    }
+
+    private static ProductsPageDTO await(CompletableFuture<ProductsPageDTO> search) {
+        try {
+            return search.join();
+        } catch (CompletionException e) {
+            // Followers fail the same way as the request that ran the search
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,22 +1,53 @@
 package com.assignment.products.service;
 
+import com.assignment.products.catalog.CatalogReadModel;
+import com.assignment.products.catalog.ChangeWatermark;
 import com.assignment.products.entity.Product;
+import com.assignment.products.enums.BulkUpdateStatus;
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.event.CatalogBulkChangedEvent;
+import com.assignment.products.event.ProductChangedEvent;
+import com.assignment.products.exception.NotStockAvailableException;
+import com.assignment.products.exception.ProductNotFoundException;
 import com.assignment.products.mapper.ProductMapper;
+import com.assignment.products.model.ChangeToken;
+import com.assignment.products.model.ProductBulkUpdateItemDTO;
+import com.assignment.products.model.ProductBulkUpdateResultDTO;
+import com.assignment.products.model.ProductChangeDTO;
+import com.assignment.products.model.ProductChangesDTO;
+import com.assignment.products.model.ProductCursor;
 import com.assignment.products.model.ProductRequestDTO;
 import com.assignment.products.model.ProductUpdateRequestDTO;
+import com.assignment.products.model.ProductsPageDTO;
 import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.repository.ProductArchiveRepository;
 import com.assignment.products.repository.ProductSpecification;
 import com.assignment.products.repository.ProductsRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,16 +61,33 @@ public class ProductsService {
 
     private final ProductSpecification productSpecification;
 
-    public List<ProductsResponseDTO> findAllProducts(){
+    private final CatalogReadModel catalogReadModel;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Validator validator;
+
+    private final ProductArchiveRepository productArchiveRepository;
+
+    private final EntityManager entityManager;
+
+    private final ChangeWatermark changeWatermark;
+
+    @Transactional(readOnly = true)
+    public ProductsPageDTO findAllProducts(ProductSort sort, ProductCursor cursor, int limit){
         boolean isAdmin = isRoleAdmin();
-        List<Product> productsList = productsRepository.findAll(productSpecification.filterProducts(null, null, null, false, isAdmin));
-        return productsList.stream().filter(Objects::nonNull).map(productMapper::convertToDTO).collect(Collectors.toList());
+        if (!isAdmin && catalogReadModel.isReady()) {
+            return findSnapshotPage(null, null, null, false, sort, cursor, limit);
+        }
+        return findPage(productSpecification.filterProducts(null, null, null, false, isAdmin), null, sort, cursor, limit);
     }
 
     public List<ProductsResponseDTO> createProducts(List<ProductRequestDTO> createProductsList) {
         List<Product> products = createProductsList.stream().map(productMapper::convertFromDTO).collect(Collectors.toList());
-        return productsRepository.saveAllAndFlush(products).stream().filter(Objects::nonNull).map(
+        List<ProductsResponseDTO> created = productsRepository.saveAllAndFlush(products).stream().filter(Objects::nonNull).map(
                 productMapper::convertToDTO).collect(Collectors.toList());
+        created.forEach(product -> eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), null, product)));
+        return created;
     }
 
     public ProductsResponseDTO updateProducts(
@@ -48,6 +96,7 @@ public class ProductsService {
 
         Product product = productsRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
+        ProductsResponseDTO before = productMapper.convertToDTO(product);
 
         Optional.ofNullable(productRequestDTO.getName())
                 .ifPresent(product::setName);
@@ -61,31 +110,214 @@ public class ProductsService {
         Optional.ofNullable(productRequestDTO.getQuantity())
                 .ifPresent(product::setQuantity);
 
-        return productMapper.convertToDTO(productsRepository.save(product));
+        Product saved = productsRepository.save(product);
+        // Flushed so the entity carries the change version generated by the update
+        productsRepository.flush();
+        ProductsResponseDTO after = productMapper.convertToDTO(saved);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, before, after));
+        return after;
     }
 
 
+    /**
+     * Applies many partial updates in one transaction with batched UPDATE statements, without loading the
+     * products. Patches that fail validation are reported and skipped; the rest are still applied.
+     */
+    public List<ProductBulkUpdateResultDTO> bulkUpdateProducts(List<ProductBulkUpdateItemDTO> items) {
+        ProductBulkUpdateResultDTO[] results = new ProductBulkUpdateResultDTO[items.size()];
+        List<ProductBulkUpdateItemDTO> valid = new ArrayList<>(items.size());
+        List<Integer> validPositions = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ProductBulkUpdateItemDTO item = items.get(i);
+            // The changes are unwrapped from the item, so they are never null; a patch without fields would
+            // still bump the version and timestamp of its row
+            if (!item.getChanges().isAtLeastOneFieldPresent()) {
+                results[i] = new ProductBulkUpdateResultDTO(item.getId(), BulkUpdateStatus.INVALID, "No fields to update");
+                continue;
+            }
+            Set<ConstraintViolation<ProductBulkUpdateItemDTO>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+                results[i] = new ProductBulkUpdateResultDTO(item.getId(), BulkUpdateStatus.INVALID, message);
+            } else {
+                valid.add(item);
+                validPositions.add(i);
+            }
+        }
+
+        long updated = 0;
+        int[] counts = valid.isEmpty() ? new int[0] : productsRepository.bulkUpdate(valid);
+        for (int j = 0; j < counts.length; j++) {
+            boolean found = counts[j] != 0;
+            updated += found ? 1 : 0;
+            results[validPositions.get(j)] = found
+                    ? new ProductBulkUpdateResultDTO(valid.get(j).getId(), BulkUpdateStatus.UPDATED, null)
+                    : new ProductBulkUpdateResultDTO(valid.get(j).getId(), BulkUpdateStatus.NOT_FOUND, "Product not found");
+        }
+        if (updated > 0) {
+            eventPublisher.publishEvent(new CatalogBulkChangedEvent(updated));
+        }
+        return Arrays.asList(results);
+    }
+
     public void deleteProduct(long productId) {
-        productsRepository.deleteById(productId);
+        productsRepository.findById(productId).ifPresent(product -> {
+            ProductsResponseDTO before = productMapper.convertToDTO(product);
+            productsRepository.delete(product);
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, before, null));
+        });
     }
 
-    public List<ProductsResponseDTO> findByCriteria(String name, BigDecimal minPrice, BigDecimal maxPrice, Boolean available){
+    @Transactional(readOnly = true)
+    public ProductsPageDTO findByCriteria(String name, BigDecimal minPrice, BigDecimal maxPrice, Boolean available,
+                                          ProductSort sort, ProductCursor cursor, int limit){
         boolean isAdmin = isRoleAdmin();
-            return productsRepository.findAll(productSpecification.filterProducts(name, minPrice, maxPrice, available, isAdmin))
-                    .stream().map(productMapper::convertToDTO).collect(Collectors.toList());
+        if (!isAdmin && catalogReadModel.isReady()) {
+            return findSnapshotPage(name, minPrice, maxPrice, available, sort, cursor, limit);
+        }
+        return findPage(productSpecification.filterProducts(name, minPrice, maxPrice, available, isAdmin), name, sort, cursor, limit);
+    }
+
+    /**
+     * Fetches one keyset page. One extra row is read to tell whether another page follows,
+     * so the cost of a page does not depend on how deep the client has paged.
+     * Name searches default to relevance order.
+     */
+    private ProductsPageDTO findPage(Specification<Product> filter, String name, ProductSort sort, ProductCursor cursor, int limit) {
+        ProductSort pageSort = resolveSort(name, sort, cursor);
+        Specification<Product> spec = Specification.allOf(filter, productSpecification.afterCursor(cursor, name));
+        if (pageSort == ProductSort.RELEVANCE) {
+            spec = spec.and(productSpecification.orderByRelevance(name));
+        }
+        List<ProductsResponseDTO> products = productsRepository.findResponses(spec, ProductSpecification.sortFor(pageSort), limit + 1);
+        return toPage(products, name, pageSort, limit);
+    }
+
+    private ProductsPageDTO findSnapshotPage(String name, BigDecimal minPrice, BigDecimal maxPrice, boolean onlyAvailable,
+                                             ProductSort sort, ProductCursor cursor, int limit) {
+        ProductSort pageSort = resolveSort(name, sort, cursor);
+        List<ProductsResponseDTO> products = catalogReadModel.findPage(name, minPrice, maxPrice, onlyAvailable, pageSort, cursor, limit + 1);
+        return toPage(products, name, pageSort, limit);
+    }
+
+    private static ProductsPageDTO toPage(List<ProductsResponseDTO> products, String name, ProductSort pageSort, int limit) {
+        String nextCursor = null;
+        if (products.size() > limit) {
+            products = products.subList(0, limit);
+            ProductsResponseDTO last = products.getLast();
+            nextCursor = ProductCursor.after(pageSort, last, ProductSpecification.relevanceRank(name, last.getName())).encode();
+        }
+        return ProductsPageDTO.builder()
+                .products(products)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static ProductSort resolveSort(String name, ProductSort sort, ProductCursor cursor) {
+        if (cursor != null) {
+            return cursor.getSort();
+        }
+        boolean hasName = !ProductSpecification.normalize(name).isEmpty();
+        if (sort == null) {
+            return hasName ? ProductSort.RELEVANCE : ProductSort.ID;
+        }
+        return sort == ProductSort.RELEVANCE && !hasName ? ProductSort.ID : sort;
+    }
+
+    /**
+     * Products created, updated or deleted after the given position of the change sequence, oldest change
+     * first. Deleted and archived products are returned as tombstones.
+     * <p>
+     * A change is numbered when its row is written, not when its transaction commits, so only changes up to
+     * the {@link ChangeWatermark} are returned: a number below it can no longer be committed, and the returned
+     * token never skips a change that is still in flight.
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesDTO findChangesSince(long since, int limit) {
+        long until = changeWatermark.current();
+        List<ProductChangeDTO> changes = new ArrayList<>();
+        if (until <= since) {
+            return new ProductChangesDTO(changes, ChangeToken.encode(since), false);
+        }
+        productsRepository.findChangesSince(since, until, Limit.of(limit + 1)).forEach(change ->
+                changes.add(change.isDeleted() ? ProductChangeDTO.tombstone(change.getId(), change.getChangeVersion()) : change));
+        productArchiveRepository.findArchivedSince(since, until, Limit.of(limit + 1)).forEach(archived ->
+                changes.add(ProductChangeDTO.tombstone(archived.getId(), archived.getChangeVersion())));
+        changes.sort(Comparator.comparingLong(ProductChangeDTO::getChangeVersion));
+
+        boolean hasMore = changes.size() > limit;
+        List<ProductChangeDTO> page = hasMore ? changes.subList(0, limit) : changes;
+        long next = page.isEmpty() ? since : page.get(page.size() - 1).getChangeVersion();
+        return new ProductChangesDTO(page, ChangeToken.encode(next), hasMore);
     }
 
-    public Product findProductById(long productId){
-        return productsRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
+    /**
+     * Loads the live products with the given ids with one {@code IN} query. Orders are priced and written from
+     * the result, so the catalog snapshot, which can lag writes made on other instances, is not used.
+     *
+     * @throws ProductNotFoundException listing every id that does not exist or is deleted
+     */
+    public Map<Long, Product> findProductsByIds(Collection<Long> productIds){
+        Map<Long, Product> products = new HashMap<>();
+        productsRepository.findAllById(productIds).stream()
+                .filter(product -> !product.isDeleted())
+                .forEach(product -> products.put(product.getId(), product));
+        List<Long> missing = productIds.stream().filter(productId -> !products.containsKey(productId)).toList();
+        if (!missing.isEmpty()) {
+            throw new ProductNotFoundException(missing);
+        }
+        return products;
     }
 
+    /**
+     * Reserves stock with a guarded update rather than a read-check-write, so concurrent orders
+     * cannot oversell. The row is read back while the update still holds its lock, so the published state
+     * includes stock taken by orders committed since the product was loaded.
+     *
+     * @throws NotStockAvailableException when the product does not have {@code quantity} units left
+     */
     public void reduceProductStock(Product product, int quantity){
-        product.setQuantity(product.getQuantity() - quantity);
-        productsRepository.save(product);
+        if (productsRepository.decrementStock(product.getId(), quantity) == 0) {
+            throw new NotStockAvailableException("Insufficient Stock for the product: " + product.getName());
+        }
+        // The entity may predate stock taken by concurrent orders. The row is locked by the update, so the
+        // row read back is exactly what this order left; the entity is made read-only so it is not written
+        // back over later orders
+        ProductsResponseDTO after = productsRepository.findResponses(
+                (root, query, cb) -> cb.equal(root.get("id"), product.getId()), Sort.unsorted()).get(0);
+        if (entityManager.contains(product)) {
+            entityManager.unwrap(Session.class).setReadOnly(product, true);
+        }
+        product.setQuantity(after.getQuantity());
+        eventPublisher.publishEvent(stockTaken(after, quantity));
+    }
+
+    /**
+     * Publishes a {@link ProductChangedEvent} for each product whose stock was taken by a batched
+     * JDBC update, with {@code taken} units added back to build the state before the write.
+     */
+    public void publishStockTaken(Map<Long, Integer> taken) {
+        if (taken.isEmpty()) {
+            return;
+        }
+        List<ProductsResponseDTO> products = productsRepository.findResponses(
+                (root, query, cb) -> root.get("id").in(taken.keySet()), Sort.unsorted());
+        for (ProductsResponseDTO after : products) {
+            eventPublisher.publishEvent(stockTaken(after, taken.get(after.getId())));
+        }
+    }
+
+    private static ProductChangedEvent stockTaken(ProductsResponseDTO after, int taken) {
+        ProductsResponseDTO before = ProductsResponseDTO.builder()
+                .id(after.getId()).name(after.getName()).description(after.getDescription()).price(after.getPrice())
+                .quantity(after.getQuantity() + taken).isDeleted(after.isDeleted())
+                .createTime(after.getCreateTime()).lastUpdateTime(after.getLastUpdateTime())
+                .build();
+        return new ProductChangedEvent(after.getId(), before, after);
     }
 
-    private static boolean isRoleAdmin() {
+    public static boolean isRoleAdmin() {
         return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().contains("ROLE_ADMIN"));
     }
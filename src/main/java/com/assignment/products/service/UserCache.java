@@ -0,0 +1,65 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of users by username. Unknown usernames are cached as empty results with a
+ * shorter TTL so repeated lookups of the same missing name do not reach the database.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private final Cache<String, Optional<User>> users;
+
+    public UserCache(@Value("${spring.application.user-cache.ttl:10m}") Duration ttl,
+                     @Value("${spring.application.user-cache.negative-ttl:1m}") Duration negativeTtl,
+                     @Value("${spring.application.user-cache.max-size:10000}") long maxSize,
+                     MeterRegistry meterRegistry) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UserExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    public Optional<User> get(String userName, Function<String, Optional<User>> loader) {
+        return users.get(userName, loader);
+    }
+
+    public void evict(String userName) {
+        log.debug("Evicting cached user {}", userName);
+        users.invalidate(userName);
+    }
+
+    private record UserExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<User>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<User> user, long currentTime) {
+            return user.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<User> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<User> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Evicts the cached user whenever the row is written, so password and role changes
+ * are visible to the next login or token lookup. Eviction runs once the transaction has completed,
+ * so a lookup that raced the write cannot put the old row back, and a username change evicts the
+ * old name as well as the new one.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final UserCache userCache;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof User user) {
+            evictAfterCompletion(Set.of(user.getUsername()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            Set<String> userNames = new HashSet<>();
+            userNames.add(user.getUsername());
+            if (event.getOldState() != null) {
+                Object oldUserName = event.getOldState()[event.getPersister().getPropertyIndex("userName")];
+                if (oldUserName != null) {
+                    userNames.add((String) oldUserName);
+                }
+            }
+            evictAfterCompletion(userNames);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User user) {
+            evictAfterCompletion(Set.of(user.getUsername()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evictAfterCompletion(Set<String> userNames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userNames.forEach(userCache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                userNames.forEach(userCache::evict);
+            }
+        });
+    }
+}
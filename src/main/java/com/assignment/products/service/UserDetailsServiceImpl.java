@@ -1,20 +1,33 @@
 package com.assignment.products.service;
 
+import com.assignment.products.entity.User;
 import com.assignment.products.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    private final UserCache userCache;
+
+    private final MeterRegistry meterRegistry;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUserName(username).get();
+        return userCache.get(username, this::findUser)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    }
+
+    private Optional<User> findUser(String username) {
+        return meterRegistry.timer("auth.user.lookup").record(() -> userRepository.findByUserName(username));
     }
 }
@@ -0,0 +1,16 @@
+-- Orders accepted by the asynchronous intake endpoint and not yet placed, or placed and kept for status
+-- lookups. Workers claim PENDING rows, place the order and record the outcome in the same transaction.
+CREATE TABLE order_intake (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tracking_id VARCHAR(36) NOT NULL UNIQUE,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    request TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response TEXT,
+    error VARCHAR(1000),
+    created_time TIMESTAMP NOT NULL,
+    updated_time TIMESTAMP NOT NULL
+);
+
+-- Workers read the queue in arrival order; only unfinished rows are indexed
+CREATE INDEX idx_order_intake_unfinished ON order_intake(status, id) WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,3 @@
+-- Ordered products can now be archived. Their order items keep the product id, which then refers to the
+-- row in products_archive (same id, with the name and price), so the foreign key to products is dropped.
+ALTER TABLE order_items DROP CONSTRAINT order_items_product_id_fkey;
@@ -0,0 +1,7 @@
+-- One row per product managed by an in-memory stock ledger, naming the instance that holds its counter.
+-- The owner renews the lease while it runs; another instance may take the product once the lease expires.
+CREATE TABLE inventory_ledger_leases (
+    product_id BIGINT PRIMARY KEY,
+    owner VARCHAR(36) NOT NULL,
+    expires_time TIMESTAMP NOT NULL
+);
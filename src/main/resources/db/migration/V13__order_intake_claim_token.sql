@@ -0,0 +1,6 @@
+-- Set by each claim and cleared when a stale claim is queued again. A worker records the outcome only while
+-- its own claim holds, so a worker that overran the processing timeout cannot place the order a second time.
+ALTER TABLE order_intake ADD COLUMN claim_token VARCHAR(36);
+
+-- Finished rows are purged once they are older than the retention window
+CREATE INDEX idx_order_intake_finished ON order_intake(updated_time) WHERE status IN ('COMPLETED', 'FAILED');
@@ -0,0 +1,3 @@
+-- Ledger instance that reserved the stock of a pending order item. A flush credits only the items its own
+-- counter reserved, so items reserved by a previous owner of the product never cancel newer reservations.
+ALTER TABLE order_items ADD COLUMN stock_ledger VARCHAR(36);
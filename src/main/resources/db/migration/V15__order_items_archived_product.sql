@@ -0,0 +1,12 @@
+-- Order items of archived products refer to their products_archive row through archived_product_id, so
+-- product_id keeps its foreign key to products and is cleared when the product is archived.
+ALTER TABLE order_items ADD COLUMN archived_product_id BIGINT REFERENCES products_archive(id);
+ALTER TABLE order_items ALTER COLUMN product_id DROP NOT NULL;
+
+-- Items of products archived while the foreign key was dropped
+UPDATE order_items oi SET archived_product_id = oi.product_id, product_id = NULL
+WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.id = oi.product_id);
+
+ALTER TABLE order_items ADD CONSTRAINT order_items_product_id_fkey FOREIGN KEY (product_id) REFERENCES products(id);
+ALTER TABLE order_items ADD CONSTRAINT order_items_one_product_check
+    CHECK ((product_id IS NULL) <> (archived_product_id IS NULL));
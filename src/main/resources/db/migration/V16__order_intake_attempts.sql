@@ -0,0 +1,3 @@
+-- Counts the claims of an order, so one whose placement keeps failing with a database error is marked FAILED
+-- after the configured number of attempts instead of being retried forever.
+ALTER TABLE order_intake ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Composite index backing keyset pagination ordered by price: (price, id) > (last price, last id)
+CREATE INDEX idx_products_price_id ON products(price, id);
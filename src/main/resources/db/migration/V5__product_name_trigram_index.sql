@@ -0,0 +1,5 @@
+-- Trigram index so substring searches on product names (lower(name) LIKE '%term%') use an index
+-- instead of a sequential scan. idx_products_name only helps prefix matches.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
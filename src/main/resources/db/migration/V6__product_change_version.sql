@@ -0,0 +1,7 @@
+-- Every insert, update and soft delete of a product stamps the row with the next value of this
+-- sequence, so max(change_version) identifies the catalog state and is answered from the index.
+CREATE SEQUENCE product_change_seq;
+
+ALTER TABLE products ADD COLUMN change_version BIGINT NOT NULL DEFAULT nextval('product_change_seq');
+
+CREATE INDEX idx_products_change_version ON products(change_version);
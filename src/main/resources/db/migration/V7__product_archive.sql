@@ -0,0 +1,32 @@
+-- When a product was soft deleted, so the archival job can pick rows older than its minimum age.
+-- Rows deleted before this migration fall back to their last update time.
+ALTER TABLE products ADD COLUMN deleted_time TIMESTAMP;
+
+UPDATE products SET deleted_time = last_updated_time WHERE is_deleted = true;
+
+-- Soft-deleted products that no order refers to are moved here by the archival job.
+-- change_version is stamped again on archiving so the catalog version moves when rows leave products.
+CREATE TABLE products_archive (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    price DECIMAL(19, 2) NOT NULL,
+    quantity INTEGER NOT NULL,
+    created_time TIMESTAMP,
+    last_updated_time TIMESTAMP,
+    deleted_time TIMESTAMP,
+    archived_time TIMESTAMP NOT NULL,
+    change_version BIGINT NOT NULL
+);
+
+CREATE INDEX idx_products_archive_change_version ON products_archive(change_version);
+
+-- Partial indexes cover only the rows each kind of query reads. Live rows serve every non-admin
+-- listing and keyset page; the deleted rows index serves admin listings and archival candidates.
+-- They replace the boolean index and the full (price, id) index.
+DROP INDEX idx_products_deleted;
+DROP INDEX idx_products_price_id;
+
+CREATE INDEX idx_products_live_id ON products(id) WHERE is_deleted = false;
+CREATE INDEX idx_products_live_price_id ON products(price, id) WHERE is_deleted = false;
+CREATE INDEX idx_products_deleted_time ON products(deleted_time) WHERE is_deleted = true;
@@ -0,0 +1,6 @@
+-- Order items whose stock was reserved by the in-memory stock ledger and not yet written to products.quantity.
+-- The ledger applies them in batches and marks them applied in the same transaction; on startup it applies
+-- whatever a previous process left pending before loading its counters.
+ALTER TABLE order_items ADD COLUMN stock_pending BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX idx_order_items_stock_pending ON order_items(id) WHERE stock_pending;
@@ -0,0 +1,13 @@
+-- Idempotency-Key values seen on place-order, per user, with the response of the order they created.
+-- The row is inserted in the same transaction as the order, so a key is only ever stored with its order.
+-- response holds the order response encoded as Smile; rows are purged after the retention window.
+CREATE TABLE order_idempotency_keys (
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    response BYTEA,
+    created_time TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+
+CREATE INDEX idx_order_idempotency_keys_created_time ON order_idempotency_keys(created_time);
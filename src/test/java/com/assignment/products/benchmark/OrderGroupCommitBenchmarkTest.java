@@ -0,0 +1,151 @@
+package com.assignment.products.benchmark;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import com.assignment.products.model.OrderRequestDTO;
+import com.assignment.products.model.OrderRequestDTO.OrderItemRequestDTO;
+import com.assignment.products.repository.ProductsRepository;
+import com.assignment.products.repository.UserRepository;
+import com.assignment.products.service.OrderGroupCommitWriter;
+import com.assignment.products.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Order throughput of one transaction per order against group commit, for a growing number of concurrent
+ * callers ordering from a small set of products. On the in-memory test database a commit costs no disk
+ * flush, so the gap on PostgreSQL is larger than measured here.
+ * Run with {@code mvn test -Dtest=OrderGroupCommitBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderGroupCommitBenchmarkTest {
+
+    private static final int[] CALLERS = {1, 4, 16, 64};
+
+    private static final int PRODUCTS = 8;
+
+    private static final int WARMUP_ORDERS = 2_000;
+
+    private static final int MEASURED_ORDERS = 10_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderGroupCommitWriter groupCommitWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        productsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void compareThroughput() throws Exception {
+        User user = saveCustomer();
+        List<OrderRequestDTO> orders = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            orders.add(orderFor(saveProduct("Benchmark Item " + i)));
+        }
+
+        System.out.printf("%-8s %14s %14s %8s%n", "callers", "orders/s tx", "orders/s group", "speedup");
+        for (int callers : CALLERS) {
+            double perOrder = throughput(callers, user, orders, orderService::placeOrder);
+
+            ReflectionTestUtils.setField(groupCommitWriter, "enabled", true);
+            ReflectionTestUtils.invokeMethod(groupCommitWriter, "start");
+            double grouped;
+            try {
+                grouped = throughput(callers, user, orders, groupCommitWriter::placeOrder);
+            } finally {
+                ReflectionTestUtils.invokeMethod(groupCommitWriter, "shutdown");
+                ReflectionTestUtils.setField(groupCommitWriter, "enabled", false);
+            }
+            System.out.printf("%-8d %14.0f %14.0f %7.2fx%n", callers, perOrder, grouped, grouped / perOrder);
+            assertTrue(perOrder > 0 && grouped > 0);
+        }
+    }
+
+    private static double throughput(int callers, User user, List<OrderRequestDTO> orders,
+                                     BiConsumer<User, OrderRequestDTO> placeOrder) throws Exception {
+        run(callers, WARMUP_ORDERS, user, orders, placeOrder);
+        long start = System.nanoTime();
+        run(callers, MEASURED_ORDERS, user, orders, placeOrder);
+        return MEASURED_ORDERS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void run(int callers, int total, User user, List<OrderRequestDTO> orders,
+                            BiConsumer<User, OrderRequestDTO> placeOrder) throws Exception {
+        List<Future<?>> running = new ArrayList<>(callers);
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int caller = 0; caller < callers; caller++) {
+                int first = caller;
+                running.add(executor.submit(() -> {
+                    for (int i = first; i < total; i += callers) {
+                        placeOrder.accept(user, orders.get(i % orders.size()));
+                    }
+                }));
+            }
+            for (Future<?> caller : running) {
+                caller.get();
+            }
+        }
+    }
+
+    private static OrderRequestDTO orderFor(Product product) {
+        OrderItemRequestDTO item = new OrderItemRequestDTO();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        OrderRequestDTO orderRequest = new OrderRequestDTO();
+        orderRequest.setOrderItems(List.of(item));
+        return orderRequest;
+    }
+
+    private Product saveProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(10));
+        product.setQuantity(1_000_000);
+        return productsRepository.save(product);
+    }
+
+    private User saveCustomer() {
+        User customUser = new User();
+        customUser.setUserName("benchmark");
+        customUser.setPassword("password");
+        customUser.setRole(Role.USER);
+        customUser.setFirstName("Benchmark");
+        customUser.setLastName("User");
+        return userRepository.save(customUser);
+    }
+}
@@ -0,0 +1,105 @@
+package com.assignment.products.benchmark;
+
+import com.assignment.products.model.ProductsResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares payload size and encoding time of a 10k-product listing in JSON, gzipped JSON, CBOR and Smile.
+ * Run with {@code mvn test -Dtest=ResponseFormatBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ResponseFormatBenchmarkTest {
+
+    private static final int PRODUCTS = 10_000;
+
+    private static final int WARMUP_ROUNDS = 50;
+
+    private static final int MEASURED_ROUNDS = 100;
+
+    @Test
+    void compareFormats() throws IOException {
+        List<ProductsResponseDTO> products = products();
+        ObjectMapper json = mapper(new ObjectMapper());
+        ObjectMapper cbor = mapper(new ObjectMapper(new CBORFactory()));
+        ObjectMapper smile = mapper(new ObjectMapper(new SmileFactory()));
+
+        int jsonSize = json.writeValueAsBytes(products).length;
+        System.out.printf("%-10s %10s %12s%n", "format", "bytes", "ms/encode");
+        report("json", jsonSize, time(() -> json.writeValueAsBytes(products)));
+        report("json+gzip", gzip(json.writeValueAsBytes(products)).length,
+                time(() -> gzip(json.writeValueAsBytes(products))));
+        int cborSize = cbor.writeValueAsBytes(products).length;
+        report("cbor", cborSize, time(() -> cbor.writeValueAsBytes(products)));
+        int smileSize = smile.writeValueAsBytes(products).length;
+        report("smile", smileSize, time(() -> smile.writeValueAsBytes(products)));
+
+        assertTrue(cborSize < jsonSize);
+        assertTrue(smileSize < jsonSize);
+    }
+
+    private static ObjectMapper mapper(ObjectMapper mapper) {
+        // Same date handling as the application's JSON mapper
+        return mapper.registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<ProductsResponseDTO> products() {
+        List<ProductsResponseDTO> products = new ArrayList<>(PRODUCTS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= PRODUCTS; i++) {
+            products.add(ProductsResponseDTO.builder()
+                    .id(i)
+                    .name("Product " + i)
+                    .description("Description of product number " + i + " with some typical marketing text")
+                    .price(BigDecimal.valueOf(1000 + i, 2))
+                    .quantity(i % 100)
+                    .createTime(now.minusDays(i % 365))
+                    .lastUpdateTime(now)
+                    .build());
+        }
+        return products;
+    }
+
+    private static double time(Encoder encoder) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            encoder.encode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            encoder.encode();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static void report(String format, int bytes, double millis) {
+        System.out.printf("%-10s %10d %12.2f%n", format, bytes, millis);
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        Object encode() throws IOException;
+    }
+}
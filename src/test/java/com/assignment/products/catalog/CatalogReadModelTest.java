@@ -0,0 +1,78 @@
+package com.assignment.products.catalog;
+
+import com.assignment.products.event.ProductChangedEvent;
+import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.repository.ProductsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogReadModelTest {
+
+    @Mock
+    private ProductsRepository productsRepository;
+
+    @Test
+    void reload_ShouldRunOneAtATime_WhenTriggeredConcurrently() throws Exception {
+        CatalogReadModel readModel = new CatalogReadModel(productsRepository);
+        readModel.enabled = true;
+        CountDownLatch firstReading = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch secondReading = new CountDownLatch(1);
+        List<ProductsResponseDTO> products = List.of(ProductsResponseDTO.builder()
+                .id(1L).name("Laptop").price(new BigDecimal("10.00")).quantity(1).build());
+        when(productsRepository.findResponses(any(), any(Sort.class))).thenAnswer(invocation -> {
+            if (firstReading.getCount() > 0) {
+                firstReading.countDown();
+                releaseFirst.await();
+            } else {
+                secondReading.countDown();
+            }
+            return products;
+        });
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(readModel::reload);
+        assertTrue(firstReading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(readModel::reload);
+        assertFalse(secondReading.await(200, TimeUnit.MILLISECONDS));
+        releaseFirst.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, readModel.version());
+        assertTrue(readModel.findById(1L).isPresent());
+    }
+
+    @Test
+    void onProductChanged_ShouldKeepTheNewerProduct_WhenAnOlderWriteArrivesLast() {
+        CatalogReadModel readModel = new CatalogReadModel(productsRepository);
+        readModel.enabled = true;
+        when(productsRepository.findResponses(any(), any(Sort.class))).thenReturn(List.of(product(10, 3)));
+        readModel.reload();
+
+        readModel.onProductChanged(new ProductChangedEvent(1L, product(10, 3), product(8, 5)));
+        readModel.onProductChanged(new ProductChangedEvent(1L, product(10, 3), product(9, 4)));
+
+        assertEquals(8, readModel.findById(1L).orElseThrow().getQuantity());
+    }
+
+    private static ProductsResponseDTO product(int quantity, long changeVersion) {
+        return ProductsResponseDTO.builder().id(1L).name("Laptop").price(new BigDecimal("10.00"))
+                .quantity(quantity).changeVersion(changeVersion).build();
+    }
+}
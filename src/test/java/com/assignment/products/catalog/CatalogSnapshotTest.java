@@ -0,0 +1,97 @@
+package com.assignment.products.catalog;
+
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.model.ProductCursor;
+import com.assignment.products.model.ProductsResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = CatalogSnapshot.of(1, List.of(
+                product(3, "Mouse", "25.00", 10),
+                product(1, "Laptop", "1000.00", 5),
+                product(2, "Laptop Bag", "25.00", 0),
+                product(4, "Old Phone", "50.00", 3, true)));
+    }
+
+    @Test
+    void query_ShouldPageByPriceAndId_WhenCursorIsGiven() {
+        List<ProductsResponseDTO> first = snapshot.query(null, null, null, false, ProductSort.PRICE, null, 2);
+        assertEquals(List.of(2L, 3L), ids(first));
+
+        ProductCursor cursor = ProductCursor.after(ProductSort.PRICE, first.get(1), 0);
+        assertEquals(List.of(1L), ids(snapshot.query(null, null, null, false, ProductSort.PRICE, cursor, 2)));
+    }
+
+    @Test
+    void query_ShouldApplyFilters_LikeTheDatabaseQuery() {
+        assertEquals(List.of(1L, 2L), ids(snapshot.query("laptop", null, null, false, ProductSort.ID, null, 10)));
+        assertEquals(List.of(1L), ids(snapshot.query("laptop", null, null, true, ProductSort.ID, null, 10)));
+        assertEquals(List.of(2L, 3L), ids(snapshot.query(null, null, new BigDecimal("30"), false, ProductSort.PRICE, null, 10)));
+        assertEquals(List.of(2L), ids(snapshot.query("bag laptop", null, null, false, ProductSort.RELEVANCE, null, 10)));
+        assertEquals(List.of(1L, 2L), ids(snapshot.query("laptop", null, null, false, ProductSort.RELEVANCE, null, 10)));
+    }
+
+    @Test
+    void apply_ShouldReplaceAndRemoveProducts_WithoutChangingThePreviousSnapshot() {
+        CatalogSnapshot updated = snapshot.apply(3, product(3, "Mouse", "5.00", 0), 1);
+        CatalogSnapshot removed = updated.apply(1, null, 2);
+
+        assertEquals(new BigDecimal("25.00"), snapshot.findById(3).getPrice());
+        assertEquals(List.of(3L, 2L), ids(updated.query(null, null, null, false, ProductSort.PRICE, null, 2)));
+        assertEquals(List.of(), ids(updated.query("mouse", null, null, true, ProductSort.ID, null, 10)));
+        assertNull(removed.findById(1));
+        assertEquals(2, removed.size());
+        assertNotEquals(snapshot.version(), removed.version());
+    }
+
+    @Test
+    void apply_ShouldDropWritesOlderThanTheStoredRow() {
+        CatalogSnapshot updated = snapshot.apply(3, versioned(product(3, "Mouse", "20.00", 10), 8), 8);
+
+        assertSame(updated, updated.apply(3, versioned(product(3, "Mouse", "22.00", 10), 7), 7));
+        assertEquals(new BigDecimal("20.00"), updated.findById(3).getPrice());
+    }
+
+    @Test
+    void apply_ShouldNotBringBackDeletedProducts_WithWritesArrivingAfterTheDelete() {
+        CatalogSnapshot deleted = snapshot.apply(3, null, 0);
+        CatalogSnapshot loaded = CatalogSnapshot.of(1, List.of(versioned(product(5, "Lamp", "30.00", 1, true), 6)));
+
+        assertSame(deleted, deleted.apply(3, versioned(product(3, "Mouse", "22.00", 10), 8), 8));
+        assertNull(deleted.findById(3));
+        assertSame(loaded, loaded.apply(5, versioned(product(5, "Lamp", "35.00", 1), 5), 5));
+        assertEquals(0, loaded.size());
+    }
+
+    private static ProductsResponseDTO versioned(ProductsResponseDTO product, long changeVersion) {
+        product.setChangeVersion(changeVersion);
+        return product;
+    }
+
+    private static List<Long> ids(List<ProductsResponseDTO> products) {
+        return products.stream().map(ProductsResponseDTO::getId).toList();
+    }
+
+    private static ProductsResponseDTO product(long id, String name, String price, int quantity) {
+        return product(id, name, price, quantity, false);
+    }
+
+    private static ProductsResponseDTO product(long id, String name, String price, int quantity, boolean deleted) {
+        return ProductsResponseDTO.builder().id(id).name(name).price(new BigDecimal(price))
+                .quantity(quantity).isDeleted(deleted).build();
+    }
+}
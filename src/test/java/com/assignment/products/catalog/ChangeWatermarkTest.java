@@ -0,0 +1,68 @@
+package com.assignment.products.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeWatermarkTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ChangeWatermark watermark;
+
+    @BeforeEach
+    void setUp() {
+        watermark = new ChangeWatermark(jdbcTemplate);
+        watermark.settleTime = Duration.ofSeconds(10);
+    }
+
+    @Test
+    void watermark_ShouldBeZero_UntilASampleHasSettled() {
+        watermark.record(0, 50);
+
+        assertEquals(0, watermark.watermark(9 * SECOND));
+    }
+
+    @Test
+    void watermark_ShouldBeBelowTheNewestSettledSample() {
+        watermark.record(0, 50);
+        watermark.record(5 * SECOND, 80);
+        watermark.record(12 * SECOND, 120);
+
+        assertEquals(79, watermark.watermark(16 * SECOND));
+        assertEquals(79, watermark.watermark(21 * SECOND));
+        assertEquals(119, watermark.watermark(22 * SECOND));
+    }
+
+    @Test
+    void record_ShouldDropSettledSamples_WhenTheWatermarkIsNotRead() {
+        for (int second = 0; second < 1000; second++) {
+            watermark.record(second * SECOND, second);
+        }
+
+        assertEquals(10, watermark.sampleCount());
+        assertEquals(988, watermark.watermark(999 * SECOND));
+    }
+
+    @Test
+    void current_ShouldReadTheSequence_WhenSettleTimeIsZero() {
+        watermark.settleTime = Duration.ZERO;
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(42L);
+
+        assertEquals(41, watermark.current());
+    }
+}
@@ -0,0 +1,68 @@
+package com.assignment.products.integration;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import com.assignment.products.repository.ProductsRepository;
+import com.assignment.products.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the embedded server, since compression is applied by the connector and not by MockMvc.
+ * The JDK client leaves the body compressed, so the response headers are the server's own.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class CompressionIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @AfterEach
+    void tearDown() {
+        productsRepository.deleteAll();
+    }
+
+    @Test
+    void findAllProducts_ShouldBeGzipped_AndKeepTheETag() throws Exception {
+        productsRepository.saveAll(IntStream.range(0, 100).mapToObj(i -> Product.builder()
+                .name("Compressed Item " + i)
+                .description("Enough text to take the listing past the minimum response size")
+                .price(BigDecimal.TEN)
+                .quantity(5)
+                .build()).toList());
+        String token = jwtService.generateToken(User.builder().id(1L).userName("compression").role(Role.USER).build());
+
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/api/v1/products/?limit=100"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(response.headers().firstValue("ETag").orElseThrow().startsWith("W/\""));
+    }
+}
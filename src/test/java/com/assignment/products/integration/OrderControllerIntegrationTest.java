@@ -6,10 +6,13 @@ import com.assignment.products.entity.User;
 import com.assignment.products.enums.Role;
 import com.assignment.products.model.OrderRequestDTO;
 import com.assignment.products.model.OrderRequestDTO.OrderItemRequestDTO;
+import com.assignment.products.repository.OrderIntakeRepository;
 import com.assignment.products.repository.OrderRepository;
 import com.assignment.products.repository.ProductsRepository;
 import com.assignment.products.repository.UserRepository;
+import com.assignment.products.service.OrderIntakeWorker;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -29,7 +33,9 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -47,6 +53,18 @@ public class OrderControllerIntegrationTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderIntakeRepository orderIntakeRepository;
+
+    @Autowired
+    private OrderIntakeWorker orderIntakeWorker;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -144,6 +162,111 @@ public class OrderControllerIntegrationTest {
         assertEquals(BigDecimal.valueOf(1900.0).setScale(2), orderInDB.getFirst().getTotalPrice().setScale(2));
     }
 
+    @Test
+    void placeOrder_ShouldReportAllMissingProducts_WhenProductsDoNotExist() throws Exception {
+
+        User customUser = saveAndReturnCustomer();
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                customUser,
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))
+        );
+
+        Product product = saveAndReturnProduct(BigDecimal.valueOf(100));
+
+        OrderRequestDTO orderRequest = new OrderRequestDTO(List.of(
+                new OrderItemRequestDTO(product.getId(), 1),
+                new OrderItemRequestDTO(product.getId() + 1000, 1),
+                new OrderItemRequestDTO(product.getId() + 2000, 1)));
+
+        mockMvc.perform(post("/api/v1/orders/place-order")
+                        .with(csrf())
+                        .with(authentication(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(
+                        "Products not found: [" + (product.getId() + 1000) + ", " + (product.getId() + 2000) + "]"));
+
+        Product productInDb = productsRepository.findById(product.getId()).get();
+        assertEquals(10, productInDb.getQuantity(), "Stock should not change on failed order");
+    }
+
+    @Test
+    void placeOrder_ShouldReplayOriginalOrder_WhenIdempotencyKeyIsRetried() throws Exception {
+
+        User customUser = saveAndReturnCustomer();
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                customUser,
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))
+        );
+
+        Product product = saveAndReturnProduct(BigDecimal.valueOf(100));
+        String orderRequest = objectMapper.writeValueAsString(getOrderRequestDTO(product));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/v1/orders/place-order")
+                            .with(csrf())
+                            .with(authentication(auth))
+                            .header("Idempotency-Key", "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(orderRequest))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalOrderPrice").value(200.0))
+                    .andExpect(jsonPath("$.orderItems[0].productName").value("In Stock Item"));
+        }
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(8, productsRepository.findById(product.getId()).get().getQuantity());
+
+        OrderRequestDTO otherOrder = new OrderRequestDTO(List.of(new OrderItemRequestDTO(product.getId(), 1)));
+        mockMvc.perform(post("/api/v1/orders/place-order")
+                        .with(csrf())
+                        .with(authentication(auth))
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(otherOrder)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void acceptOrder_ShouldQueueOrder_AndReportStatusOncePlaced() throws Exception {
+
+        User customUser = saveAndReturnCustomer();
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                customUser,
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))
+        );
+
+        Product product = saveAndReturnProduct(BigDecimal.valueOf(100));
+
+        String response = mockMvc.perform(post("/api/v1/orders/intake")
+                        .with(csrf())
+                        .with(authentication(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(getOrderRequestDTO(product))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn().getResponse().getContentAsString();
+        String trackingId = objectMapper.readTree(response).get("trackingId").asText();
+        assertEquals(10, productsRepository.findById(product.getId()).get().getQuantity(), "Stock changes only once the order is placed");
+
+        long intakeId = orderIntakeRepository.findAll().getFirst().getId();
+        jdbcTemplate.update("UPDATE order_intake SET status = 'PROCESSING', claim_token = 'claim' WHERE id = ?", intakeId);
+        entityManager.clear();
+        orderIntakeWorker.process(intakeId, "claim");
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/v1/orders/intake/" + trackingId)
+                        .with(authentication(auth)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.order.totalOrderPrice").value(200.0));
+        assertEquals(8, productsRepository.findById(product.getId()).get().getQuantity());
+    }
+
     private static OrderRequestDTO getOrderRequestDTO(Product product) {
         OrderRequestDTO orderRequest = new OrderRequestDTO();
         OrderItemRequestDTO orderItemRequestDTO = new OrderItemRequestDTO();
@@ -0,0 +1,219 @@
+package com.assignment.products.integration;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import com.assignment.products.exception.NotStockAvailableException;
+import com.assignment.products.model.OrderRequestDTO;
+import com.assignment.products.model.OrderRequestDTO.OrderItemRequestDTO;
+import com.assignment.products.model.OrderResponseDTO;
+import com.assignment.products.repository.ProductsRepository;
+import com.assignment.products.repository.UserRepository;
+import com.assignment.products.inventory.StockLedger;
+import com.assignment.products.mapper.OrderMapper;
+import com.assignment.products.service.OrderGroupCommitWriter;
+import com.assignment.products.service.OrderService;
+import com.assignment.products.service.ProductsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: the writer commits on its own thread, so the rows it writes are removed after each test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class OrderGroupCommitIntegrationTest {
+
+    private static final int ORDERS = 10;
+
+    @Autowired
+    private OrderGroupCommitWriter groupCommitWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductsService productsService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(groupCommitWriter, "enabled", true);
+        ReflectionTestUtils.setField(groupCommitWriter, "window", Duration.ofMillis(200));
+        ReflectionTestUtils.invokeMethod(groupCommitWriter, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(groupCommitWriter, "shutdown");
+        ReflectionTestUtils.setField(groupCommitWriter, "enabled", false);
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        productsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void placeOrder_ShouldRejectOnlyTheOrdersBeyondStock_WhenTheyShareABatch() throws Exception {
+        User user = saveCustomer();
+        Product scarce = saveProduct("Scarce Item", 4);
+        Product plentiful = saveProduct("Plentiful Item", 100);
+
+        List<Object> outcomes = placeConcurrently(user, scarce, plentiful);
+
+        List<OrderResponseDTO> placed = outcomes.stream()
+                .filter(OrderResponseDTO.class::isInstance).map(OrderResponseDTO.class::cast).toList();
+        assertEquals(4, placed.size());
+        outcomes.stream().filter(outcome -> !(outcome instanceof OrderResponseDTO))
+                .forEach(outcome -> assertInstanceOf(NotStockAvailableException.class, outcome));
+        placed.forEach(order -> assertEquals(0, new BigDecimal("200.00").compareTo(order.getTotalOrderPrice())));
+
+        assertEquals(0, productsRepository.findById(scarce.getId()).get().getQuantity());
+        assertEquals(96, productsRepository.findById(plentiful.getId()).get().getQuantity());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(8, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class));
+        assertTrue(meterRegistry.summary("orders.group-commit.batch-size").max() > 1);
+    }
+
+    @Test
+    void placeOrder_ShouldFailWithoutPlacingAgain_WhenTheCommitOutcomeIsUnknown() throws Exception {
+        User user = saveCustomer();
+        Product product = saveProduct("Lost Commit Item", 10);
+        PlatformTransactionManager commitFails = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.rollback(status);
+                throw new TransactionSystemException("Connection lost during commit");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        OrderGroupCommitWriter writer = new OrderGroupCommitWriter(orderService, productsService, stockLedger, orderMapper,
+                jdbcTemplate, namedParameterJdbcTemplate, new TransactionTemplate(commitFails), 10, meterRegistry);
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "window", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(writer, "maxBatch", 64);
+        ReflectionTestUtils.invokeMethod(writer, "start");
+        try {
+            assertThrows(TransactionSystemException.class, () -> writer.placeOrder(user, orderFor(product)));
+        } finally {
+            ReflectionTestUtils.invokeMethod(writer, "shutdown");
+        }
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(10, productsRepository.findById(product.getId()).get().getQuantity());
+    }
+
+    private List<Object> placeConcurrently(User user, Product scarce, Product plentiful) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponseDTO>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < ORDERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return groupCommitWriter.placeOrder(user, orderFor(scarce, plentiful));
+                }));
+            }
+            start.countDown();
+        }
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<OrderResponseDTO> result : results) {
+            try {
+                outcomes.add(result.get());
+            } catch (ExecutionException e) {
+                outcomes.add(e.getCause());
+            }
+        }
+        return outcomes;
+    }
+
+    private static OrderRequestDTO orderFor(Product... products) {
+        List<OrderItemRequestDTO> items = new ArrayList<>();
+        for (Product product : products) {
+            OrderItemRequestDTO item = new OrderItemRequestDTO();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+        OrderRequestDTO orderRequest = new OrderRequestDTO();
+        orderRequest.setOrderItems(items);
+        return orderRequest;
+    }
+
+    private Product saveProduct(String name, int quantity) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setQuantity(quantity);
+        return productsRepository.save(product);
+    }
+
+    private User saveCustomer() {
+        User customUser = new User();
+        customUser.setUserName("group-commit");
+        customUser.setPassword("password");
+        customUser.setRole(Role.USER);
+        customUser.setFirstName("Test");
+        customUser.setLastName("User");
+        return userRepository.save(customUser);
+    }
+}
@@ -0,0 +1,230 @@
+package com.assignment.products.integration;
+
+import com.assignment.products.entity.OrderIntake;
+import com.assignment.products.entity.Product;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.OrderIntakeStatus;
+import com.assignment.products.enums.Role;
+import com.assignment.products.model.OrderRequestDTO;
+import com.assignment.products.model.OrderRequestDTO.OrderItemRequestDTO;
+import com.assignment.products.repository.OrderIntakeRepository;
+import com.assignment.products.repository.ProductsRepository;
+import com.assignment.products.repository.UserRepository;
+import com.assignment.products.service.OrderIntakeWorker;
+import com.assignment.products.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Not transactional: the worker commits or rolls back its own transactions, so the rows are removed after each
+ * test. The worker under test places orders through a mock that delegates to the real service, which lets a
+ * test act between placing an order and recording its outcome.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class OrderIntakeWorkerIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderIntakeRepository orderIntakeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private OrderService realOrderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final OrderService orderService = mock(OrderService.class);
+
+    private OrderIntakeWorker worker;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        worker = new OrderIntakeWorker(jdbcTemplate, namedParameterJdbcTemplate, transactionTemplate,
+                orderIntakeRepository, userRepository, orderService, objectMapper, 1, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(worker, "retention", Duration.ofHours(24));
+        ReflectionTestUtils.setField(worker, "processingTimeout", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+        User customUser = new User();
+        customUser.setUserName("intake");
+        customUser.setPassword("password");
+        customUser.setRole(Role.USER);
+        customUser.setFirstName("Test");
+        customUser.setLastName("User");
+        user = userRepository.save(customUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(worker, "shutdown");
+        jdbcTemplate.update("DELETE FROM order_intake");
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        productsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void process_ShouldRollBackTheOrder_WhenTheClaimWasLostWhilePlacingIt() throws Exception {
+        Product product = saveProduct(10);
+        OrderIntake intake = saveIntake(product, OrderIntakeStatus.PROCESSING, "first", LocalDateTime.now());
+        when(orderService.placeOrder(any(), any())).thenAnswer(invocation -> {
+            Object response = realOrderService.placeOrder(invocation.getArgument(0), invocation.getArgument(1));
+            // Queued again and claimed by another worker while this one was still placing the order
+            CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                    "UPDATE order_intake SET claim_token = 'second' WHERE id = ?", intake.getId())).join();
+            return response;
+        });
+
+        worker.process(intake.getId(), "first");
+
+        assertEquals(10, quantity(product));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        OrderIntake stored = orderIntakeRepository.findById(intake.getId()).orElseThrow();
+        assertEquals(OrderIntakeStatus.PROCESSING, stored.getStatus());
+        assertEquals("second", stored.getClaimToken());
+    }
+
+    @Test
+    void process_ShouldCompleteTheOrder_WhileTheClaimHolds() throws Exception {
+        Product product = saveProduct(10);
+        OrderIntake intake = saveIntake(product, OrderIntakeStatus.PROCESSING, "first", LocalDateTime.now());
+        when(orderService.placeOrder(any(), any())).thenAnswer(invocation ->
+                realOrderService.placeOrder(invocation.getArgument(0), invocation.getArgument(1)));
+
+        worker.process(intake.getId(), "first");
+
+        assertEquals(8, quantity(product));
+        assertEquals(OrderIntakeStatus.COMPLETED, orderIntakeRepository.findById(intake.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void process_ShouldLeaveTheOrderForRetry_WhenTheTransactionFails() throws Exception {
+        Product product = saveProduct(10);
+        OrderIntake intake = saveIntake(product, OrderIntakeStatus.PROCESSING, "first", LocalDateTime.now());
+        when(orderService.placeOrder(any(), any())).thenThrow(new TransactionSystemException("Could not commit"));
+
+        worker.process(intake.getId(), "first");
+
+        assertEquals(OrderIntakeStatus.PROCESSING, orderIntakeRepository.findById(intake.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void process_ShouldMarkTheOrderFailed_WhenTheLastAttemptFails() throws Exception {
+        Product product = saveProduct(10);
+        OrderIntake intake = saveIntake(product, OrderIntakeStatus.PROCESSING, "first", LocalDateTime.now(), 3);
+        when(orderService.placeOrder(any(), any())).thenThrow(new DataIntegrityViolationException("Value too long"));
+
+        worker.process(intake.getId(), "first");
+
+        OrderIntake stored = orderIntakeRepository.findById(intake.getId()).orElseThrow();
+        assertEquals(OrderIntakeStatus.FAILED, stored.getStatus());
+        assertEquals("Gave up after 3 attempts: Value too long", stored.getError());
+    }
+
+    @Test
+    void requeueStale_ShouldQueueStaleOrdersAgain_UntilTheirAttemptsAreUsedUp() throws Exception {
+        Product product = saveProduct(10);
+        LocalDateTime stale = LocalDateTime.now().minusMinutes(10);
+        OrderIntake retried = saveIntake(product, OrderIntakeStatus.PROCESSING, "first", stale, 2);
+        OrderIntake exhausted = saveIntake(product, OrderIntakeStatus.PROCESSING, "first", stale, 3);
+
+        ReflectionTestUtils.invokeMethod(worker, "requeueStale");
+
+        assertEquals(OrderIntakeStatus.PENDING, orderIntakeRepository.findById(retried.getId()).orElseThrow().getStatus());
+        assertEquals(OrderIntakeStatus.FAILED, orderIntakeRepository.findById(exhausted.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void purgeFinished_ShouldDeleteOnlyFinishedRowsOlderThanTheRetention() throws Exception {
+        Product product = saveProduct(10);
+        LocalDateTime old = LocalDateTime.now().minusDays(2);
+        saveIntake(product, OrderIntakeStatus.COMPLETED, null, old);
+        saveIntake(product, OrderIntakeStatus.FAILED, null, old);
+        OrderIntake pending = saveIntake(product, OrderIntakeStatus.PENDING, null, old);
+        OrderIntake recent = saveIntake(product, OrderIntakeStatus.COMPLETED, null, LocalDateTime.now());
+
+        worker.purgeFinished();
+
+        List<Long> remaining = orderIntakeRepository.findAll().stream().map(OrderIntake::getId).toList();
+        assertEquals(2, remaining.size());
+        assertTrue(remaining.containsAll(List.of(pending.getId(), recent.getId())));
+    }
+
+    private OrderIntake saveIntake(Product product, OrderIntakeStatus status, String claimToken, LocalDateTime updatedAt)
+            throws Exception {
+        return saveIntake(product, status, claimToken, updatedAt, status == OrderIntakeStatus.PENDING ? 0 : 1);
+    }
+
+    private OrderIntake saveIntake(Product product, OrderIntakeStatus status, String claimToken, LocalDateTime updatedAt,
+                                   int attempts) throws Exception {
+        OrderItemRequestDTO item = new OrderItemRequestDTO();
+        item.setProductId(product.getId());
+        item.setQuantity(2);
+        OrderRequestDTO orderRequest = new OrderRequestDTO();
+        orderRequest.setOrderItems(List.of(item));
+        return orderIntakeRepository.save(OrderIntake.builder()
+                .trackingId(UUID.randomUUID().toString())
+                .userId(user.getId())
+                .request(objectMapper.writeValueAsString(orderRequest))
+                .status(status)
+                .claimToken(claimToken)
+                .attempts(attempts)
+                .createdAt(updatedAt)
+                .updatedAt(updatedAt)
+                .build());
+    }
+
+    private int quantity(Product product) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+
+    private Product saveProduct(int quantity) {
+        Product product = new Product();
+        product.setName("Queued Item");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setQuantity(quantity);
+        return productsRepository.save(product);
+    }
+}
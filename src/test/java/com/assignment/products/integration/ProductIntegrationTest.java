@@ -1,10 +1,21 @@
 package com.assignment.products.integration;
 
+import com.assignment.products.entity.Order;
+import com.assignment.products.entity.OrderItem;
 import com.assignment.products.entity.Product;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
 import com.assignment.products.model.ProductRequestDTO;
 import com.assignment.products.model.ProductUpdateRequestDTO;
+import com.assignment.products.repository.OrderRepository;
+import com.assignment.products.repository.ProductArchiveRepository;
 import com.assignment.products.repository.ProductsRepository;
+import com.assignment.products.repository.UserRepository;
+import com.assignment.products.service.ProductArchiveService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,8 +31,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -29,6 +44,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -47,6 +64,24 @@ public class ProductIntegrationTest {
     @Autowired
     private ProductsRepository productsRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductArchiveRepository productArchiveRepository;
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         productsRepository.deleteAll();
@@ -162,6 +197,331 @@ public class ProductIntegrationTest {
                 .andExpect(jsonPath("$[0].name", is("Apple Watch")));
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void findAllProducts_ShouldPageWithCursor() throws Exception {
+        saveProduct("Item A", 30.0);
+        saveProduct("Item B", 10.0);
+        saveProduct("Item C", 20.0);
+
+        String nextCursor = mockMvc.perform(get("/api/v1/products/")
+                        .param("sort", "PRICE")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Item B")))
+                .andExpect(jsonPath("$[1].name", is("Item C")))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/v1/products/")
+                        .param("cursor", nextCursor)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Item A")))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void searchProducts_ShouldMatchAllWordsAndOrderByRelevance() throws Exception {
+        saveProduct("Stopwatch Pro", 30.0);
+        saveProduct("Apple Watch", 500.0);
+        saveProduct("Watch", 20.0);
+        saveProduct("Watch Strap", 10.0);
+        saveProduct("Apple iPhone", 1000.0);
+
+        mockMvc.perform(get("/api/v1/products/search")
+                        .param("name", "watch"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].name", is("Watch")))
+                .andExpect(jsonPath("$[1].name", is("Watch Strap")))
+                .andExpect(jsonPath("$[2].name", is("Apple Watch")))
+                .andExpect(jsonPath("$[3].name", is("Stopwatch Pro")));
+
+        mockMvc.perform(get("/api/v1/products/search")
+                        .param("name", "watch  APPLE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Apple Watch")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void searchProducts_ShouldPageByRelevance() throws Exception {
+        saveProduct("Stopwatch Pro", 30.0);
+        saveProduct("Apple Watch", 500.0);
+        saveProduct("Watch", 20.0);
+
+        String nextCursor = mockMvc.perform(get("/api/v1/products/search")
+                        .param("name", "watch")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("Watch")))
+                .andExpect(jsonPath("$[1].name", is("Apple Watch")))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/v1/products/search")
+                        .param("name", "watch")
+                        .param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Stopwatch Pro")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void findAllProducts_ShouldReturn400_WhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get("/api/v1/products/")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findAllProducts_ShouldReturn304_UntilCatalogChanges() throws Exception {
+        Product product = saveProduct("Item A", 10.0);
+
+        String eTag = mockMvc.perform(get("/api/v1/products/"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/products/").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+        mockMvc.perform(get("/api/v1/products/search").param("name", "item").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        ProductUpdateRequestDTO update = new ProductUpdateRequestDTO();
+        update.setPrice(BigDecimal.valueOf(12.0));
+        mockMvc.perform(put("/api/v1/products/update-product/{id}", product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+        productsRepository.flush();
+
+        mockMvc.perform(get("/api/v1/products/").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void findAllProducts_ShouldEncodeCbor_WhenAccepted() throws Exception {
+        saveProduct("Item A", 10.0);
+
+        byte[] body = mockMvc.perform(get("/api/v1/products/").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/cbor"))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode products = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals("Item A", products.get(0).get("name").asText());
+
+        mockMvc.perform(get("/api/v1/products/"))
+                .andExpect(header().string("Content-Type", containsString("application/json")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void exportProducts_ShouldStreamVisibleProductsAsNdjson() throws Exception {
+        saveProduct("Item A", 10.0);
+        saveProduct("Item B", 20.0);
+        Product deleted = saveProduct("Item C", 30.0);
+        deleted.setDeleted(true);
+        productsRepository.save(deleted);
+
+        String body = mockMvc.perform(get("/api/v1/products/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Item A", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("Item B", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void exportProducts_ShouldQuoteCsvFields() throws Exception {
+        saveProduct("Cable, 2m", 5.5);
+
+        String body = mockMvc.perform(get("/api/v1/products/export").param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals("id,name,description,price,quantity,createTime,lastUpdateTime", lines[0]);
+        assertTrue(lines[1].contains(",\"Cable, 2m\",Test Description,5.5,10,"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkUpdateProducts_ShouldReportEachItem() throws Exception {
+        Product lamp = saveProduct("Desk Lamp", 25.0);
+        Product chair = saveProduct("Office Chair", 199.0);
+        String body = """
+                [{"id":%d,"price":19.99},
+                 {"id":%d,"quantity":0,"name":"Office Chair v2"},
+                 {"id":999999,"price":5},
+                 {"id":%d,"price":-1},
+                 {"id":%d}]
+                """.formatted(lamp.getId(), chair.getId(), lamp.getId(), chair.getId());
+
+        mockMvc.perform(put("/api/v1/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$[1].status", is("UPDATED")))
+                .andExpect(jsonPath("$[2].status", is("NOT_FOUND")))
+                .andExpect(jsonPath("$[3].status", is("INVALID")))
+                .andExpect(jsonPath("$[3].message", is("Price must be greater than 0")))
+                .andExpect(jsonPath("$[4].status", is("INVALID")))
+                .andExpect(jsonPath("$[4].message", is("No fields to update")));
+
+        // The updates bypass the persistence context, drop the copies loaded by saveProduct
+        entityManager.clear();
+        Product updatedLamp = productsRepository.findById(lamp.getId()).orElseThrow();
+        Product updatedChair = productsRepository.findById(chair.getId()).orElseThrow();
+        assertEquals(new BigDecimal("19.99"), updatedLamp.getPrice());
+        assertEquals("Office Chair v2", updatedChair.getName());
+        assertEquals(0, updatedChair.getQuantity());
+        assertEquals(new BigDecimal("199.00"), updatedChair.getPrice());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findProductChanges_ShouldReturnOnlyLaterChangesWithTombstones() throws Exception {
+        Product kept = saveProduct("Kept Item", 10.0);
+        Product removed = saveProduct("Removed Item", 20.0);
+        productsRepository.flush();
+
+        String token = objectMapper.readTree(mockMvc.perform(get("/api/v1/products/changes"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("nextToken").asText();
+
+        mockMvc.perform(get("/api/v1/products/changes").param("since", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(0)))
+                .andExpect(jsonPath("$.nextToken", is(token)));
+
+        kept.setPrice(BigDecimal.valueOf(11.0));
+        productsRepository.save(kept);
+        productsRepository.delete(removed);
+        productsRepository.flush();
+
+        mockMvc.perform(get("/api/v1/products/changes").param("since", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].id", is((int) kept.getId())))
+                .andExpect(jsonPath("$.changes[0].price", is(11.0)))
+                .andExpect(jsonPath("$.changes[1].id", is((int) removed.getId())))
+                .andExpect(jsonPath("$.changes[1].deleted", is(true)))
+                .andExpect(jsonPath("$.changes[1].name").doesNotExist())
+                .andExpect(jsonPath("$.hasMore", is(false)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void archiveDeletedProducts_ShouldMoveThemOutOfProducts() throws Exception {
+        Product product = saveProduct("Discontinued Item", 10.0);
+        productsRepository.delete(product);
+        productsRepository.flush();
+
+        assertTrue(productArchiveService.archiveDeletedProducts() >= 1);
+        entityManager.clear();
+
+        assertTrue(productsRepository.findById(product.getId()).isEmpty());
+        assertTrue(productArchiveRepository.findById(product.getId()).isPresent());
+        mockMvc.perform(get("/api/v1/products/archive").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Discontinued Item")));
+    }
+
+    @Test
+    void archiveDeletedProducts_ShouldArchiveOrderedProducts_AndKeepTheirOrderItems() {
+        Product product = saveProduct("Ordered Then Discontinued", 10.0);
+        User user = new User();
+        user.setUserName("archive-customer");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        userRepository.save(user);
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalPrice(BigDecimal.valueOf(10.0));
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setUnitPrice(BigDecimal.valueOf(10.0));
+        item.setDiscountApplied(BigDecimal.ZERO);
+        item.setTotalPrice(BigDecimal.valueOf(10.0));
+        order.addOrderItem(item);
+        orderRepository.saveAndFlush(order);
+        entityManager.clear();
+        productsRepository.deleteById(product.getId());
+        productsRepository.flush();
+
+        assertTrue(productArchiveService.archiveDeletedProducts() >= 1);
+        entityManager.clear();
+
+        assertTrue(productsRepository.findById(product.getId()).isEmpty());
+        assertEquals("Ordered Then Discontinued", productArchiveRepository.findById(product.getId()).orElseThrow().getName());
+        assertEquals(product.getId(), jdbcTemplate.queryForObject(
+                "SELECT archived_product_id FROM order_items WHERE order_id = ? AND product_id IS NULL",
+                Long.class, order.getId()));
+        OrderItem archivedItem = orderRepository.findById(order.getId()).orElseThrow().getItems().get(0);
+        assertEquals("Ordered Then Discontinued", archivedItem.getArchivedProduct().getName());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importProducts_ShouldInsertValidRowsAndReportInvalidOnes() throws Exception {
+        String feed = """
+                {"name":"Desk Lamp","description":"LED lamp","price":25.50,"quantity":10}
+                {"name":"X","description":"Too short a name","price":5,"quantity":1}
+                not json
+                {"name":"Office Chair","description":"Ergonomic","price":199.99,"quantity":3}
+                """;
+
+        mockMvc.perform(post("/api/v1/products/import")
+                        .contentType("application/x-ndjson")
+                        .content(feed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(2)))
+                .andExpect(jsonPath("$.errors[0].row", is(2)))
+                .andExpect(jsonPath("$.errors[1].row", is(3)));
+
+        assertEquals(2, productsRepository.count());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importProducts_ShouldReadQuotedCsvFields() throws Exception {
+        String feed = "quantity,name,price,description\r\n"
+                + "4,\"Cable, 2m\",5.50,\"Braided \"\"USB-C\"\" cable\"\r\n"
+                + "1,Monitor,abc,Bad price\r\n";
+
+        mockMvc.perform(post("/api/v1/products/import")
+                        .contentType("text/csv")
+                        .content(feed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0].row", is(2)));
+
+        Product imported = productsRepository.findAll().get(0);
+        assertEquals("Cable, 2m", imported.getName());
+        assertEquals("Braided \"USB-C\" cable", imported.getDescription());
+        assertEquals(4, imported.getQuantity());
+    }
+
     private Product saveProduct(String name, double price) {
         Product product = new Product();
         product.setName(name);
@@ -0,0 +1,250 @@
+package com.assignment.products.integration;
+
+import com.assignment.products.entity.Order;
+import com.assignment.products.entity.OrderItem;
+import com.assignment.products.entity.Product;
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import com.assignment.products.inventory.StockLedger;
+import com.assignment.products.repository.OrderRepository;
+import com.assignment.products.repository.ProductsRepository;
+import com.assignment.products.repository.UserRepository;
+import com.assignment.products.service.ProductsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: the ledger flushes in transactions of its own, so the rows are removed after each test.
+ * Each test builds its own ledgers, standing in for application instances sharing the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class StockLedgerIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductsService productsService;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<StockLedger> ledgers = new ArrayList<>();
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        User customUser = new User();
+        customUser.setUserName("ledger");
+        customUser.setPassword("password");
+        customUser.setRole(Role.USER);
+        customUser.setFirstName("Test");
+        customUser.setLastName("User");
+        user = userRepository.save(customUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgers.forEach(ledger -> ReflectionTestUtils.invokeMethod(ledger, "releaseLeases"));
+        jdbcTemplate.update("DELETE FROM inventory_ledger_leases");
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        productsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void startup_ShouldApplyItemsLeftPending_InChunks_BeforeLoadingCounters() {
+        Product product = saveProduct(10);
+        savePendingOrder("crashed-instance", product, 1, 2, 3);
+
+        StockLedger ledger = start(new SimpleMeterRegistry(), product);
+
+        assertTrue(ledger.manages(product.getId()));
+        assertEquals(4, quantity(product));
+        assertEquals(4, ledger.available(product.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items WHERE stock_pending = true", Integer.class));
+    }
+
+    @Test
+    void flush_ShouldReconcileCountersWithStockChangedOutsideTheLedger() {
+        Product product = saveProduct(10);
+        StockLedger ledger = start(new SimpleMeterRegistry(), product);
+
+        assertTrue(ledger.reserve(product, 4));
+        savePendingOrder(ledger.getOwner(), product, 4);
+        jdbcTemplate.update("UPDATE products SET quantity = quantity + 10 WHERE id = ?", product.getId());
+        assertEquals(6, ledger.available(product.getId()));
+
+        assertEquals(1, ledger.flush());
+
+        assertEquals(16, quantity(product));
+        assertEquals(16, ledger.available(product.getId()));
+    }
+
+    @Test
+    void flush_ShouldClampAtZero_WhenStockWasTakenOutsideTheLedger() {
+        Product product = saveProduct(5);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StockLedger ledger = start(meterRegistry, product);
+
+        assertTrue(ledger.reserve(product, 5));
+        savePendingOrder(ledger.getOwner(), product, 5);
+        jdbcTemplate.update("UPDATE products SET quantity = 2 WHERE id = ?", product.getId());
+
+        ledger.flush();
+
+        assertEquals(0, quantity(product));
+        assertEquals(0, ledger.available(product.getId()));
+        assertEquals(3, meterRegistry.counter("inventory.ledger.oversold").count());
+    }
+
+    @Test
+    void leases_ShouldLetOneInstanceManageAProduct_AndHandOverOnRelease() {
+        Product product = saveProduct(10);
+        StockLedger first = start(new SimpleMeterRegistry(), product);
+        StockLedger second = start(new SimpleMeterRegistry(), product);
+
+        assertTrue(first.manages(product.getId()));
+        assertFalse(second.manages(product.getId()));
+        assertFalse(second.reserve(product, 1));
+
+        assertTrue(first.reserve(product, 3));
+        savePendingOrder(first.getOwner(), product, 3);
+        ReflectionTestUtils.invokeMethod(first, "releaseLeases");
+        ReflectionTestUtils.invokeMethod(second, "renewLeases");
+
+        assertTrue(second.manages(product.getId()));
+        assertEquals(7, second.available(product.getId()));
+        assertEquals(7, quantity(product));
+    }
+
+    @Test
+    void flush_ShouldLeavePendingItemsOfProductsLeasedElsewhere() {
+        Product hot = saveProduct(10);
+        Product other = saveProduct(10);
+        StockLedger owner = start(new SimpleMeterRegistry(), hot);
+        StockLedger nonOwner = start(new SimpleMeterRegistry(), hot, other);
+        assertTrue(nonOwner.manages(other.getId()));
+        assertFalse(nonOwner.manages(hot.getId()));
+
+        assertTrue(owner.reserve(hot, 3));
+        savePendingOrder(owner.getOwner(), hot, 3);
+        assertEquals(0, nonOwner.flush());
+        assertEquals(10, quantity(hot));
+
+        assertEquals(1, owner.flush());
+        assertEquals(7, quantity(hot));
+        assertEquals(7, owner.available(hot.getId()));
+    }
+
+    @Test
+    void flush_ShouldNotCreditItemsReservedByAPreviousOwner() {
+        Product product = saveProduct(10);
+        StockLedger first = start(new SimpleMeterRegistry(), product);
+        ReflectionTestUtils.invokeMethod(first, "releaseLeases");
+        StockLedger second = start(new SimpleMeterRegistry(), product);
+        assertEquals(10, second.available(product.getId()));
+
+        // An order of the previous owner commits after the new owner loaded its counter
+        savePendingOrder(first.getOwner(), product, 3);
+        assertTrue(second.reserve(product, 2));
+        savePendingOrder(second.getOwner(), product, 2);
+
+        assertEquals(2, second.flush());
+        assertEquals(5, quantity(product));
+        assertEquals(5, second.available(product.getId()));
+    }
+
+    @Test
+    void reserve_ShouldStop_WhenTheLeaseRanOutWithoutARenewal() {
+        Product product = saveProduct(10);
+        StockLedger ledger = start(new SimpleMeterRegistry(), product);
+        assertTrue(ledger.reserve(product, 1));
+
+        ReflectionTestUtils.setField(ledger, "leaseValidUntil", System.nanoTime());
+
+        assertFalse(ledger.reserve(product, 1));
+        ReflectionTestUtils.invokeMethod(ledger, "renewLeases");
+        assertTrue(ledger.reserve(product, 1));
+    }
+
+    private StockLedger start(MeterRegistry meterRegistry, Product... products) {
+        StockLedger ledger = new StockLedger(jdbcTemplate, namedParameterJdbcTemplate, transactionTemplate,
+                productsService, meterRegistry);
+        ReflectionTestUtils.setField(ledger, "productIds",
+                Arrays.stream(products).map(Product::getId).collect(Collectors.toSet()));
+        ReflectionTestUtils.setField(ledger, "batchSize", 2);
+        ReflectionTestUtils.setField(ledger, "lease", Duration.ofMinutes(1));
+        // Flushed by the tests themselves
+        ReflectionTestUtils.setField(ledger, "flushInterval", Duration.ofHours(1));
+        ledgers.add(ledger);
+        ledger.afterSingletonsInstantiated();
+        return ledger;
+    }
+
+    private void savePendingOrder(String stockLedger, Product product, int... quantities) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalPrice(BigDecimal.ZERO);
+        for (int quantity : quantities) {
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(quantity);
+            item.setUnitPrice(BigDecimal.ONE);
+            item.setDiscountApplied(BigDecimal.ZERO);
+            item.setTotalPrice(BigDecimal.valueOf(quantity));
+            item.setStockPending(true);
+            item.setStockLedger(stockLedger);
+            order.addOrderItem(item);
+        }
+        orderRepository.save(order);
+    }
+
+    private int quantity(Product product) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+
+    private Product saveProduct(int quantity) {
+        Product product = new Product();
+        product.setName("Flash Sale Item");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setQuantity(quantity);
+        return productsRepository.save(product);
+    }
+}
@@ -0,0 +1,64 @@
+package com.assignment.products.integration;
+
+import com.assignment.products.entity.Product;
+import com.assignment.products.repository.ProductsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Not transactional: the tests run transactions of their own, so the rows are removed after each test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransactionTimeoutIntegrationTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @AfterEach
+    void tearDown() {
+        productsRepository.deleteAll();
+    }
+
+    @Test
+    void productWrite_ShouldRollBack_WhenItsTransactionOutlivesTheTimeout() {
+        Product product = new Product();
+        product.setName("Slow Writer Item");
+        product.setPrice(BigDecimal.TEN);
+        product.setQuantity(10);
+        long productId = productsRepository.save(product).getId();
+        TransactionTemplate slowTransaction = new TransactionTemplate(transactionManager);
+        slowTransaction.setTimeout(1);
+
+        // No statement runs after the deadline, so only the check at commit can stop this one
+        assertThrows(TransactionTimedOutException.class, () -> slowTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET quantity = 3, change_version = nextval('product_change_seq') "
+                    + "WHERE id = ?", productId);
+            try {
+                Thread.sleep(1500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, productId));
+    }
+}
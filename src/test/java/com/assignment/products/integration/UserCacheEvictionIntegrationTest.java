@@ -0,0 +1,55 @@
+package com.assignment.products.integration;
+
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import com.assignment.products.repository.UserRepository;
+import com.assignment.products.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Not transactional: the cache is evicted when the writing transaction completes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserCacheEvictionIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void renamingUser_ShouldEvictOldAndNewUsername_AfterCommit() {
+        User user = new User();
+        user.setUserName("before-rename");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        long userId = userRepository.save(user).getId();
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("after-rename"));
+        assertEquals("before-rename", userDetailsService.loadUserByUsername("before-rename").getUsername());
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(userId).orElseThrow().setUserName("after-rename"));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("before-rename"));
+        assertEquals("after-rename", userDetailsService.loadUserByUsername("after-rename").getUsername());
+    }
+}
@@ -0,0 +1,71 @@
+package com.assignment.products.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StockCounterTest {
+
+    @Test
+    void tryReserve_ShouldRejectReservation_WhenNotEnoughStockIsLeft() {
+        StockCounter counter = new StockCounter(5);
+
+        assertTrue(counter.tryReserve(3));
+        assertFalse(counter.tryReserve(3));
+        assertTrue(counter.tryReserve(2));
+        assertEquals(0, counter.available());
+
+        counter.release(2);
+        assertEquals(2, counter.available());
+    }
+
+    @Test
+    void persisted_ShouldKeepReservationsThatAreNotWrittenYet() {
+        StockCounter counter = new StockCounter(10);
+        counter.tryReserve(4);
+        counter.tryReserve(1);
+
+        // Four units written back, the restocked quantity read with them, one unit still pending
+        counter.persisted(26, 4);
+
+        assertEquals(1, counter.reserved());
+        assertEquals(25, counter.available());
+    }
+
+    @Test
+    void tryReserve_ShouldNeverOversell_UnderConcurrentReservations() throws Exception {
+        StockCounter counter = new StockCounter(1000);
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        if (counter.tryReserve(1)) {
+                            sold.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, sold.get());
+        assertEquals(0, counter.available());
+    }
+}
@@ -0,0 +1,121 @@
+package com.assignment.products.migration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests run on H2 with Flyway disabled, and the PostgreSQL migrations use features H2 does not have.
+ * These checks replay the scripts by name instead, so a migration that drops an index or constraint
+ * under a wrong name fails here rather than on deployment.
+ */
+public class MigrationScriptsTest {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__.+\\.sql");
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE (\\w+) \\((.*?)\\);", Pattern.DOTALL);
+
+    private static final Pattern REFERENCES_COLUMN = Pattern.compile("^\\s*(\\w+)\\s[^,]*REFERENCES", Pattern.MULTILINE);
+
+    private static final Pattern CREATE_INDEX = Pattern.compile("CREATE (?:UNIQUE )?INDEX (\\w+)");
+
+    private static final Pattern DROP_INDEX = Pattern.compile("DROP INDEX (?:IF EXISTS )?(\\w+)");
+
+    private static final Pattern ALTER_TABLE = Pattern.compile("ALTER TABLE (\\w+)");
+
+    private static final Pattern ADD_REFERENCES_COLUMN = Pattern.compile("ADD COLUMN (\\w+)\\s[^,;]*REFERENCES");
+
+    private static final Pattern ADD_CONSTRAINT = Pattern.compile("ADD CONSTRAINT (\\w+)");
+
+    private static final Pattern DROP_CONSTRAINT = Pattern.compile("DROP CONSTRAINT (?:IF EXISTS )?(\\w+)");
+
+    private List<Migration> migrations;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/V*__*.sql")) {
+            Matcher name = FILE_NAME.matcher(resource.getFilename());
+            assertTrue(name.matches(), resource.getFilename());
+            migrations.add(new Migration(Integer.parseInt(name.group(1)), resource.getFilename(),
+                    stripComments(resource.getContentAsString(StandardCharsets.UTF_8))));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+    }
+
+    @Test
+    void versions_ShouldBeContiguous() {
+        for (int i = 0; i < migrations.size(); i++) {
+            assertEquals(i + 1, migrations.get(i).version(), migrations.get(i).fileName());
+        }
+    }
+
+    @Test
+    void dropStatements_ShouldNameIndexesAndConstraintsThatExist() {
+        Set<String> indexes = new HashSet<>();
+        Set<String> constraints = new HashSet<>();
+        for (Migration migration : migrations) {
+            String sql = migration.sql();
+            Matcher table = CREATE_TABLE.matcher(sql);
+            while (table.find()) {
+                Matcher column = REFERENCES_COLUMN.matcher(table.group(2));
+                while (column.find()) {
+                    // PostgreSQL's name for an inline foreign key
+                    constraints.add((table.group(1) + "_" + column.group(1) + "_fkey").toLowerCase(Locale.ROOT));
+                }
+            }
+            for (String statement : sql.split(";")) {
+                Matcher created = CREATE_INDEX.matcher(statement);
+                if (created.find()) {
+                    assertTrue(indexes.add(created.group(1).toLowerCase(Locale.ROOT)),
+                            migration.fileName() + " creates existing index " + created.group(1));
+                }
+                Matcher dropped = DROP_INDEX.matcher(statement);
+                if (dropped.find()) {
+                    assertTrue(indexes.remove(dropped.group(1).toLowerCase(Locale.ROOT)),
+                            migration.fileName() + " drops unknown index " + dropped.group(1));
+                }
+                Matcher altered = ALTER_TABLE.matcher(statement);
+                Matcher addedColumn = ADD_REFERENCES_COLUMN.matcher(statement);
+                if (altered.find() && addedColumn.find()) {
+                    constraints.add((altered.group(1) + "_" + addedColumn.group(1) + "_fkey").toLowerCase(Locale.ROOT));
+                }
+                Matcher addedConstraint = ADD_CONSTRAINT.matcher(statement);
+                if (addedConstraint.find()) {
+                    assertTrue(constraints.add(addedConstraint.group(1).toLowerCase(Locale.ROOT)),
+                            migration.fileName() + " adds existing constraint " + addedConstraint.group(1));
+                }
+                Matcher droppedConstraint = DROP_CONSTRAINT.matcher(statement);
+                if (droppedConstraint.find()) {
+                    assertTrue(constraints.remove(droppedConstraint.group(1).toLowerCase(Locale.ROOT)),
+                            migration.fileName() + " drops unknown constraint " + droppedConstraint.group(1));
+                }
+            }
+        }
+        assertTrue(indexes.containsAll(Set.of("idx_products_live_id", "idx_products_live_price_id", "idx_products_deleted_time")));
+        assertTrue(!indexes.contains("idx_products_deleted") && !indexes.contains("idx_products_price_id"));
+        assertTrue(constraints.containsAll(Set.of("order_items_product_id_fkey", "order_items_archived_product_id_fkey")));
+    }
+
+    private static String stripComments(String sql) {
+        return sql.replaceAll("--[^\\n]*", "");
+    }
+
+    private record Migration(int version, String fileName, String sql) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.assignment.products.security;
+
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtServiceTest {
+
+    private JwtService jwtService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        jwtService.securityKey = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+        jwtService.expiryTime = 60_000;
+        jwtService.claimsCacheMaxSize = 100;
+        jwtService.init();
+
+        user = User.builder().id(1L).userName("user1").password("secret").role(Role.USER).build();
+    }
+
+    @Test
+    void extractUsername_ShouldReturnSubject_WhenTokenIsValid() {
+        String token = jwtService.generateToken(user);
+
+        assertEquals("user1", jwtService.extractUsername(token));
+        assertTrue(jwtService.isTokenValid("user1", user, token));
+    }
+
+    @Test
+    void extractAllClaims_ShouldReuseVerifiedClaims_ForSameToken() {
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void extractAllClaims_ShouldNotCacheRefreshTokens() {
+        jwtService.refreshExpiryTime = 120_000;
+        String refreshToken = jwtService.generateRefreshToken(user, "family");
+
+        Claims first = jwtService.extractAllClaims(refreshToken);
+        Claims second = jwtService.extractAllClaims(refreshToken);
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void extractPrincipal_ShouldRebuildUserFromClaims() {
+        String token = jwtService.generateToken(user);
+
+        User principal = jwtService.extractPrincipal(jwtService.extractAllClaims(token));
+
+        assertEquals(1L, principal.getId());
+        assertEquals("user1", principal.getUsername());
+        assertEquals(Role.USER, principal.getRole());
+    }
+
+    @Test
+    void extractAllClaims_ShouldRejectTamperedToken() {
+        String token = jwtService.generateToken(user);
+        jwtService.extractAllClaims(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.extractAllClaims(tampered));
+    }
+}
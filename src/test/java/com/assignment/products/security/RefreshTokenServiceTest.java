@@ -0,0 +1,71 @@
+package com.assignment.products.security;
+
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import com.assignment.products.model.LoginResponseDTO;
+import com.assignment.products.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    private JwtService jwtService;
+
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        jwtService.securityKey = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+        jwtService.expiryTime = 60_000;
+        jwtService.refreshExpiryTime = 120_000;
+        jwtService.claimsCacheMaxSize = 100;
+        jwtService.init();
+        refreshTokenService = new RefreshTokenService(jwtService, userDetailsService, 100);
+
+        user = User.builder().id(1L).userName("user1").password("secret").role(Role.USER).build();
+    }
+
+    @Test
+    void refresh_ShouldIssueNewTokens_WhenRefreshTokenIsValid() {
+        when(userDetailsService.loadUserByUsername("user1")).thenReturn(user);
+        LoginResponseDTO login = jwtService.validateAndGenerateToken(user);
+
+        LoginResponseDTO refreshed = refreshTokenService.refresh(login.getRefreshToken());
+
+        assertEquals("user1", jwtService.extractUsername(refreshed.getJwtToken()));
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+    }
+
+    @Test
+    void refresh_ShouldRevokeFamily_WhenRefreshTokenIsReused() {
+        when(userDetailsService.loadUserByUsername("user1")).thenReturn(user);
+        LoginResponseDTO login = jwtService.validateAndGenerateToken(user);
+        LoginResponseDTO refreshed = refreshTokenService.refresh(login.getRefreshToken());
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.refresh(login.getRefreshToken()));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.refresh(refreshed.getRefreshToken()));
+    }
+
+    @Test
+    void refresh_ShouldReject_WhenAccessTokenIsPresented() {
+        String accessToken = jwtService.generateToken(user);
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.refresh(accessToken));
+    }
+}
@@ -4,6 +4,8 @@ import com.assignment.products.discount.DiscountStrategy;
 import com.assignment.products.entity.Order;
 import com.assignment.products.entity.Product;
 import com.assignment.products.entity.User;
+import com.assignment.products.exception.NotStockAvailableException;
+import com.assignment.products.inventory.StockLedger;
 import com.assignment.products.mapper.OrderMapper;
 import com.assignment.products.model.OrderRequestDTO;
 import com.assignment.products.model.OrderRequestDTO.OrderItemRequestDTO;
@@ -18,10 +20,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -33,6 +39,9 @@ public class OrderServiceTest {
     @Mock
     private ProductsService productService;
 
+    @Mock
+    private StockLedger stockLedger;
+
     @Mock
     private OrderRepository orderRepository;
 
@@ -47,7 +56,7 @@ public class OrderServiceTest {
     @BeforeEach
     void setUp() {
         List<DiscountStrategy> strategies = Collections.singletonList(discountStrategy);
-        orderService = new OrderService(orderRepository, productService, orderMapper, strategies);
+        orderService = new OrderService(orderRepository, productService, stockLedger, orderMapper, strategies);
     }
 
     @Test
@@ -65,7 +74,7 @@ public class OrderServiceTest {
         product.setQuantity(10);
         product.setName("Test Product");
 
-        when(productService.findProductById(101L)).thenReturn(product);
+        when(productService.findProductsByIds(Set.of(101L))).thenReturn(Map.of(101L, product));
         when(discountStrategy.calculateDiscount(any(), any())).thenReturn(new BigDecimal("0.10"));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(orderMapper.convertToOrderResponseDTO(any())).thenReturn(new OrderResponseDTO());
@@ -91,11 +100,66 @@ public class OrderServiceTest {
         product.setQuantity(5);
         product.setName("Test Product");
 
-        when(productService.findProductById(101L)).thenReturn(product);
+        when(productService.findProductsByIds(Set.of(101L))).thenReturn(Map.of(101L, product));
+        when(discountStrategy.calculateDiscount(any(), any())).thenReturn(BigDecimal.ZERO);
+        doThrow(new NotStockAvailableException("Insufficient Stock for the product: Test Product"))
+                .when(productService).reduceProductStock(product, 20);
 
-        assertThrows(RuntimeException.class, () -> orderService.placeOrder(user, request));
+        assertThrows(NotStockAvailableException.class, () -> orderService.placeOrder(user, request));
 
         verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void placeOrder_ShouldMergeLinesForTheSameProduct() {
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("user");
+
+        OrderRequestDTO request = new OrderRequestDTO(List.of(
+                new OrderItemRequestDTO(101L, 2), new OrderItemRequestDTO(102L, 1), new OrderItemRequestDTO(101L, 3)));
+
+        Product first = new Product();
+        first.setId(101L);
+        first.setPrice(new BigDecimal("100.00"));
+        Product second = new Product();
+        second.setId(102L);
+        second.setPrice(new BigDecimal("10.00"));
+
+        when(productService.findProductsByIds(Set.of(101L, 102L))).thenReturn(Map.of(101L, first, 102L, second));
+        when(discountStrategy.calculateDiscount(any(), any())).thenReturn(BigDecimal.ZERO);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderMapper.convertToOrderResponseDTO(any())).thenReturn(new OrderResponseDTO());
+
+        orderService.placeOrder(user, request);
+
+        verify(productService, times(1)).reduceProductStock(first, 5);
+        verify(productService, times(1)).reduceProductStock(second, 1);
+        verify(orderRepository).save(argThat(order -> order.getItems().size() == 2
+                && order.getTotalPrice().compareTo(new BigDecimal("510.00")) == 0));
+    }
+
+    @Test
+    void placeOrder_ShouldReserveInLedger_WhenProductIsManagedByLedger() {
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("user");
+
+        OrderRequestDTO request = new OrderRequestDTO(List.of(new OrderItemRequestDTO(101L, 2)));
+
+        Product product = new Product();
+        product.setId(101L);
+        product.setPrice(new BigDecimal("100.00"));
+
+        when(productService.findProductsByIds(Set.of(101L))).thenReturn(Map.of(101L, product));
+        when(stockLedger.reserve(product, 2)).thenReturn(true);
+        when(discountStrategy.calculateDiscount(any(), any())).thenReturn(BigDecimal.ZERO);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderMapper.convertToOrderResponseDTO(any())).thenReturn(new OrderResponseDTO());
+
+        orderService.placeOrder(user, request);
+
         verify(productService, never()).reduceProductStock(any(), anyInt());
+        verify(orderRepository).save(argThat(order -> order.getItems().getFirst().isStockPending()));
     }
 }
@@ -0,0 +1,85 @@
+package com.assignment.products.service;
+
+import com.assignment.products.event.CatalogBulkChangedEvent;
+import com.assignment.products.event.ProductChangedEvent;
+import com.assignment.products.model.ProductsPageDTO;
+import com.assignment.products.model.ProductsResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ProductSearchCacheTest {
+
+    private ProductSearchCache searchCache;
+
+    @BeforeEach
+    void setUp() {
+        searchCache = new ProductSearchCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void onProductChanged_ShouldEvictOnlyPriceRangesCoveringOldOrNewPrice() {
+        ProductSearchCache.Key cheap = cache(key("", null, "20", false), product(9, "Other", "5.00", 1));
+        ProductSearchCache.Key middle = cache(key("", "40", "60", false), product(9, "Other", "50.00", 1));
+        ProductSearchCache.Key expensive = cache(key("", "100", null, false), product(9, "Other", "150.00", 1));
+
+        searchCache.onProductChanged(new ProductChangedEvent(1,
+                product(1, "Mouse", "10.00", 3), product(1, "Mouse", "55.00", 3)));
+
+        assertNull(searchCache.get(cheap));
+        assertNull(searchCache.get(middle));
+        assertNotNull(searchCache.get(expensive));
+    }
+
+    @Test
+    void onProductChanged_ShouldEvictAvailableResults_OnlyWhenStockCrossesZero() {
+        ProductSearchCache.Key available = cache(key("mouse", null, null, true), product(9, "Mouse Pad", "5.00", 1));
+        ProductSearchCache.Key all = cache(key("mouse", null, null, false), product(9, "Mouse Pad", "5.00", 1));
+        ProductSearchCache.Key containing = cache(key("", null, null, false), product(1, "Mouse", "10.00", 3));
+
+        searchCache.onProductChanged(new ProductChangedEvent(1,
+                product(1, "Mouse", "10.00", 3), product(1, "Mouse", "10.00", 2)));
+
+        assertNotNull(searchCache.get(available));
+        assertNotNull(searchCache.get(all));
+        assertNull(searchCache.get(containing));
+
+        searchCache.onProductChanged(new ProductChangedEvent(1,
+                product(1, "Mouse", "10.00", 2), product(1, "Mouse", "10.00", 0)));
+
+        assertNull(searchCache.get(available));
+        assertNotNull(searchCache.get(all));
+    }
+
+    @Test
+    void put_ShouldNotCachePage_WhenInvalidatedWhileItWasComputed() {
+        ProductSearchCache.Key key = key("", null, null, false);
+        long generation = searchCache.generation();
+        searchCache.onCatalogBulkChanged(new CatalogBulkChangedEvent(10));
+
+        searchCache.put(key, new ProductsPageDTO(List.of(), null), generation);
+
+        assertNull(searchCache.get(key));
+    }
+
+    private ProductSearchCache.Key cache(ProductSearchCache.Key key, ProductsResponseDTO product) {
+        searchCache.put(key, new ProductsPageDTO(List.of(product), null), searchCache.generation());
+        return key;
+    }
+
+    private static ProductSearchCache.Key key(String name, String minPrice, String maxPrice, boolean available) {
+        return new ProductSearchCache.Key(name, minPrice == null ? null : new BigDecimal(minPrice),
+                maxPrice == null ? null : new BigDecimal(maxPrice), available, false, null, null, 50);
+    }
+
+    private static ProductsResponseDTO product(long id, String name, String price, int quantity) {
+        return ProductsResponseDTO.builder().id(id).name(name).price(new BigDecimal(price)).quantity(quantity).build();
+    }
+}
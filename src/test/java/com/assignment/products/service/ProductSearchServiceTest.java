@@ -0,0 +1,106 @@
+package com.assignment.products.service;
+
+import com.assignment.products.model.ProductsPageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchServiceTest {
+
+    @Mock
+    private ProductsService productsService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductSearchService productSearchService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productSearchService = new ProductSearchService(productsService,
+                new ProductSearchCache(Duration.ofMinutes(1), 100, meterRegistry), meterRegistry);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void findByCriteria_ShouldRunOneQuery_ForConcurrentIdenticalSearches() throws Exception {
+        ProductsPageDTO page = new ProductsPageDTO(List.of(), null);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(productsService.findByCriteria(eq("apple"), any(), any(), anyBoolean(), any(), isNull(), anyInt()))
+                .thenAnswer(invocation -> {
+                    queryStarted.countDown();
+                    releaseQuery.await(5, TimeUnit.SECONDS);
+                    return page;
+                });
+
+        Future<ProductsPageDTO> first = executor.submit(() -> searchAsUser("  Apple ", "10.0"));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+        Future<ProductsPageDTO> second = executor.submit(() -> searchAsUser("apple", "10"));
+        // Wait until the second request has joined the running search before releasing it
+        while (meterRegistry.counter("products.search.requests", "outcome", "coalesced").count() < 1) {
+            Thread.onSpinWait();
+        }
+        releaseQuery.countDown();
+
+        assertSame(page, first.get(5, TimeUnit.SECONDS));
+        assertSame(page, second.get(5, TimeUnit.SECONDS));
+        verify(productsService, times(1)).findByCriteria(any(), any(), any(), anyBoolean(), any(), any(), anyInt());
+        assertEquals(1, meterRegistry.counter("products.search.requests", "outcome", "executed").count());
+    }
+
+    @Test
+    void findByCriteria_ShouldServeRepeatedSearchFromCache() {
+        when(productsService.findByCriteria(any(), any(), any(), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(new ProductsPageDTO(List.of(), null));
+
+        searchAsUser("apple", "5");
+        searchAsUser(" APPLE", "5.00");
+
+        verify(productsService, times(1)).findByCriteria(any(), any(), any(), anyBoolean(), any(), any(), anyInt());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "products.search").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    private ProductsPageDTO searchAsUser(String name, String minPrice) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", null, "ROLE_USER"));
+        return productSearchService.findByCriteria(name, minPrice == null ? null : new BigDecimal(minPrice), null,
+                true, null, null, 50);
+    }
+}
@@ -1,22 +1,32 @@
 package com.assignment.products.service;
 
+import com.assignment.products.catalog.CatalogReadModel;
 import com.assignment.products.entity.Product;
+import com.assignment.products.event.ProductChangedEvent;
+import com.assignment.products.enums.ProductSort;
+import com.assignment.products.exception.NotStockAvailableException;
+import com.assignment.products.exception.ProductNotFoundException;
 import com.assignment.products.mapper.ProductMapper;
 import com.assignment.products.model.ProductRequestDTO;
 import com.assignment.products.model.ProductUpdateRequestDTO;
 import com.assignment.products.model.ProductsResponseDTO;
+import com.assignment.products.repository.ProductArchiveRepository;
 import com.assignment.products.repository.ProductSpecification;
 import com.assignment.products.repository.ProductsRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -31,9 +41,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -44,6 +56,10 @@ public class ProductServiceTest {
     @Mock private ProductsRepository productsRepository;
     @Mock private ProductMapper productMapper;
     @Mock private ProductSpecification productSpecification;
+    @Mock private CatalogReadModel catalogReadModel;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ProductArchiveRepository productArchiveRepository;
+    @Mock private EntityManager entityManager;
 
     @Mock private SecurityContext securityContext;
 
@@ -117,23 +133,68 @@ public class ProductServiceTest {
     }
 
     @Test
-    void reduceProductStock_ShouldReduceQuantityAndSave() {
+    void reduceProductStock_ShouldReduceQuantityWithGuardedUpdate() {
         Product product = new Product();
+        product.setId(1L);
         product.setQuantity(10);
         int reductionAmount = 2;
+        when(productsRepository.decrementStock(1L, reductionAmount)).thenReturn(1);
+        when(productsRepository.findResponses(any(), any(Sort.class)))
+                .thenReturn(List.of(ProductsResponseDTO.builder().id(1L).quantity(8).build()));
 
         productService.reduceProductStock(product, reductionAmount);
 
         assertEquals(8, product.getQuantity());
-        verify(productsRepository).save(product);
+        verify(entityManager, never()).refresh(any());
+        verify(productsRepository, never()).save(any());
     }
 
     @Test
-    void findProductById_ShouldReturnProduct_WhenExists() {
+    void reduceProductStock_ShouldPublishTheStoredQuantity_WhenConcurrentOrdersTookStock() {
         Product product = new Product();
-        when(productsRepository.findById(1L)).thenReturn(Optional.of(product));
-        Product result = productService.findProductById(1L);
-        assertNotNull(result);
+        product.setId(1L);
+        product.setQuantity(10);
+        when(productsRepository.decrementStock(1L, 2)).thenReturn(1);
+        // Three units were taken by another order after this entity was loaded
+        when(productsRepository.findResponses(any(), any(Sort.class)))
+                .thenReturn(List.of(ProductsResponseDTO.builder().id(1L).quantity(5).changeVersion(12).build()));
+
+        productService.reduceProductStock(product, 2);
+
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(7, event.getValue().getBefore().getQuantity());
+        assertEquals(5, event.getValue().getAfter().getQuantity());
+        assertEquals(12, event.getValue().getChangeVersion());
+        assertEquals(5, product.getQuantity());
+    }
+
+    @Test
+    void reduceProductStock_ShouldThrow_WhenGuardedUpdateMatchesNoRow() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setQuantity(10);
+        when(productsRepository.decrementStock(1L, 20)).thenReturn(0);
+
+        assertThrows(NotStockAvailableException.class, () -> productService.reduceProductStock(product, 20));
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void findProductsByIds_ShouldLoadWithOneQuery_AndReportAllMissingProducts() {
+        Product live = new Product();
+        live.setId(1L);
+        Product deleted = new Product();
+        deleted.setId(2L);
+        deleted.setDeleted(true);
+        when(productsRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(live, deleted));
+
+        ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
+                () -> productService.findProductsByIds(List.of(1L, 2L, 3L)));
+
+        assertEquals(List.of(2L, 3L), exception.getProductIds());
+        verify(productsRepository, times(1)).findAllById(any());
     }
 
     @Test
@@ -143,11 +204,10 @@ public class ProductServiceTest {
         when(productSpecification.filterProducts(
                 isNull(), isNull(), isNull(), eq(false), anyBoolean())
         ).thenReturn(Mockito.mock(Specification.class));
-        when(productsRepository.findAll(any(Specification.class)))
-                .thenReturn(List.of(new Product()));
-        when(productMapper.convertToDTO(any())).thenReturn(new ProductsResponseDTO());
+        when(productsRepository.findResponses(any(Specification.class), any(Sort.class), anyInt()))
+                .thenReturn(List.of(new ProductsResponseDTO()));
 
-        productService.findAllProducts();
+        productService.findAllProducts(ProductSort.ID, null, 50);
 
         verify(productSpecification, times(1)).filterProducts(any(), any(), any(), anyBoolean(), anyBoolean());
     }
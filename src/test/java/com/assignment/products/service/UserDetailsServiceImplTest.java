@@ -0,0 +1,74 @@
+package com.assignment.products.service;
+
+import com.assignment.products.entity.User;
+import com.assignment.products.enums.Role;
+import com.assignment.products.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(Duration.ofMinutes(10), Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+        userDetailsService = new UserDetailsServiceImpl(userRepository, userCache, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void loadUserByUsername_ShouldQueryDatabaseOnce_WhenCalledRepeatedly() {
+        User user = User.builder().id(1L).userName("user1").password("hash").role(Role.USER).build();
+        when(userRepository.findByUserName("user1")).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername("user1");
+        UserDetails second = userDetailsService.loadUserByUsername("user1");
+
+        assertEquals("user1", first.getUsername());
+        assertEquals(first, second);
+        verify(userRepository, times(1)).findByUserName("user1");
+    }
+
+    @Test
+    void loadUserByUsername_ShouldCacheUnknownUsers() {
+        when(userRepository.findByUserName("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+
+        verify(userRepository, times(1)).findByUserName("ghost");
+    }
+
+    @Test
+    void loadUserByUsername_ShouldReload_WhenUserEvicted() {
+        User user = User.builder().id(1L).userName("user1").password("hash").role(Role.USER).build();
+        when(userRepository.findByUserName("user1")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("user1");
+        userCache.evict("user1");
+        userDetailsService.loadUserByUsername("user1");
+
+        verify(userRepository, times(2)).findByUserName("user1");
+    }
+}
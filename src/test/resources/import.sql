@@ -0,0 +1 @@
+CREATE SEQUENCE IF NOT EXISTS product_change_seq;